@@ -49,11 +49,13 @@ class ArrayRenderingContext implements RenderingContext {
     @Override
     public String beginSectionRenderingCode() {
         return parent.beginSectionRenderingCode()
+               + DeadlineChecks.sectionCheck()
                + String.format("for (int %s = 0; %s < %s; %s++) { ",
                                indexVariableName,
                                indexExpression().text(),
                                arrayExpression.arrayLength().text(),
-                               indexExpression().text());
+                               indexExpression().text())
+               + DeadlineChecks.indexCheck(indexVariableName);
     }
 
     @Override
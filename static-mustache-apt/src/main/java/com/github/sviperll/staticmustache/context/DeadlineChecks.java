@@ -0,0 +1,32 @@
+package com.github.sviperll.staticmustache.context;
+
+import com.github.sviperll.staticmustache.text.RenderDeadline;
+
+/**
+ * Code of the {@link RenderDeadline} checks in generated loops.
+ */
+final class DeadlineChecks {
+    private static final int MASK = RenderDeadline.CHECK_INTERVAL - 1;
+
+    private DeadlineChecks() {
+    }
+
+    static String sectionCheck() {
+        return RenderDeadline.class.getName() + ".check(); ";
+    }
+
+    /**
+     * Declares the iteration counter and checks before the loop starts.
+     */
+    static String counterDeclaration(String counterVariableName) {
+        return "int " + counterVariableName + " = 0; " + sectionCheck();
+    }
+
+    static String iterationCheck(String counterVariableName) {
+        return "if ((++" + counterVariableName + " & " + MASK + ") == 0) " + sectionCheck();
+    }
+
+    static String indexCheck(String indexVariableName) {
+        return "if ((" + indexVariableName + " & " + MASK + ") == " + MASK + ") " + sectionCheck();
+    }
+}
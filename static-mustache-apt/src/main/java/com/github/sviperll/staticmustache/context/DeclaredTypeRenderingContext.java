@@ -38,6 +38,7 @@ import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -149,7 +150,11 @@ class DeclaredTypeRenderingContext implements RenderingContext {
                                                                     name));
                 }
                 if (element.getModifiers().contains(Modifier.STATIC)) {
-                    throw new ContextException(MessageFormat.format("Refence to static field: ''{0}'': only instance fields are accessible",
+                    VariableElement fieldElement = (VariableElement) element;
+                    if (element.getModifiers().contains(Modifier.FINAL) && fieldElement.getConstantValue() != null) {
+                        return expression.constantFieldAccess(definitionElement, fieldElement);
+                    }
+                    throw new ContextException(MessageFormat.format("Refence to static field: ''{0}'': only instance fields and compile-time constants are accessible",
                                                                     name));
                 }
                 return expression.fieldAccess(element);
@@ -0,0 +1,72 @@
+package com.github.sviperll.staticmustache.context;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.github.sviperll.staticmustache.text.DeferredSections;
+
+/**
+ * Renders a section bound to a {@code @Deferred} future with {@code DeferredSections.render}.
+ * <p>
+ * Like a parallel section the body becomes the body of a lambda with its own writers,
+ * so that it can be rendered after the rest of the document.
+ */
+class DeferredRenderingContext implements RenderingContext {
+    private final JavaExpression expression;
+    private final String valueVariableName;
+    private final String escapingAppendableMethod;
+    private final VariableContext variables;
+    private final RenderingContext parent;
+
+    DeferredRenderingContext(JavaExpression expression, String valueVariableName, String escapingAppendableMethod,
+            VariableContext variables, RenderingContext parent) {
+        this.expression = expression;
+        this.valueVariableName = valueVariableName;
+        this.escapingAppendableMethod = escapingAppendableMethod;
+        this.variables = variables;
+        this.parent = parent;
+    }
+
+    @Override
+    public String beginSectionRenderingCode() {
+        return parent.beginSectionRenderingCode()
+               + String.format("%s.render(%s, %s, (%s, %s) -> { ",
+                               DeferredSections.class.getName(),
+                               expression.text(),
+                               variables.unescapedWriter(),
+                               valueVariableName,
+                               variables.unescapedWriter())
+               + String.format("java.lang.Appendable %s = %s(%s); ",
+                               variables.writer(),
+                               escapingAppendableMethod,
+                               variables.unescapedWriter());
+    }
+
+    @Override
+    public String endSectionRenderingCode() {
+        return " });" + parent.endSectionRenderingCode();
+    }
+
+    JavaExpression valueExpression() {
+        return expression.model().expression(valueVariableName, FutureRenderingContext.valueType(expression));
+    }
+
+    @Override
+    public JavaExpression getDataOrDefault(String name, JavaExpression defaultValue) throws ContextException {
+        return parent.getDataOrDefault(name, defaultValue);
+    }
+
+    @Override
+    public JavaExpression currentExpression() {
+        return expression;
+    }
+
+    @Override
+    public VariableContext createEnclosedVariableContext() {
+        return parent.createEnclosedVariableContext();
+    }
+
+    @Override
+    public @Nullable RenderingContext getParent() {
+        return parent;
+    }
+}
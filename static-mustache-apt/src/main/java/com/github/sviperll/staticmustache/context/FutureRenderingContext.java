@@ -0,0 +1,94 @@
+package com.github.sviperll.staticmustache.context;
+
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.github.sviperll.staticmustache.text.Futures;
+
+/**
+ * Waits for a {@code Future} only when rendering reaches it.
+ * <p>
+ * Everything rendered before is flushed first when the value is not ready yet,
+ * so it can be sent while the value is still computed.
+ */
+class FutureRenderingContext implements RenderingContext {
+    private final JavaExpression expression;
+    private final String valueVariableName;
+    private final String unescapedWriter;
+    private final RenderingContext parent;
+
+    public FutureRenderingContext(JavaExpression expression, String valueVariableName, String unescapedWriter, RenderingContext parent) {
+        this.expression = expression;
+        this.valueVariableName = valueVariableName;
+        this.unescapedWriter = unescapedWriter;
+        this.parent = parent;
+    }
+
+    @Override
+    public String beginSectionRenderingCode() {
+        return parent.beginSectionRenderingCode()
+               + String.format("{ %s %s = %s; ",
+                               valueType(expression),
+                               valueVariableName,
+                               awaitCode());
+    }
+
+    private String awaitCode() {
+        return Futures.class.getName() + ".await(" + expression.text() + ", " + unescapedWriter + ")";
+    }
+
+    @Override
+    public String endSectionRenderingCode() {
+        return " }" + parent.endSectionRenderingCode();
+    }
+
+    @Override
+    public JavaExpression getDataOrDefault(String name, JavaExpression defaultValue) throws ContextException {
+        return parent.getDataOrDefault(name, defaultValue);
+    }
+
+    @Override
+    public JavaExpression currentExpression() {
+        return expression;
+    }
+
+    @Override
+    public VariableContext createEnclosedVariableContext() {
+        return parent.createEnclosedVariableContext();
+    }
+
+    JavaExpression valueExpression() {
+        return expression.model().expression(valueVariableName, valueType(expression));
+    }
+
+    /**
+     * Inverted sections only need a condition, so the value is awaited in place.
+     */
+    JavaExpression awaitExpression() {
+        return expression.model().expression(awaitCode(), valueType(expression));
+    }
+
+    static TypeMirror valueType(JavaExpression expression) {
+        var model = expression.model();
+        DeclaredType futureType = model.getSupertype((DeclaredType)expression.type(), model.knownTypes()._Future);
+        TypeMirror valueType = null;
+        if (futureType != null && ! futureType.getTypeArguments().isEmpty()) {
+            valueType = futureType.getTypeArguments().iterator().next();
+        }
+        if (valueType instanceof WildcardType wildcardType) {
+            valueType = wildcardType.getExtendsBound();
+        }
+        if (valueType == null) {
+            valueType = model.getElements().getTypeElement(Object.class.getName()).asType();
+        }
+        return valueType;
+    }
+
+    @Override
+    public @Nullable RenderingContext getParent() {
+        return parent;
+    }
+}
@@ -42,26 +42,31 @@ import org.eclipse.jdt.annotation.Nullable;
 class IterableRenderingContext implements RenderingContext {
     private final JavaExpression expression;
     private final String elementVariableName;
+    private final String counterVariableName;
     private final RenderingContext parent;
 
-    public IterableRenderingContext(JavaExpression expression, String elementVariableName, RenderingContext parent) {
+    public IterableRenderingContext(JavaExpression expression, String elementVariableName, String counterVariableName,
+            RenderingContext parent) {
         this.expression = expression;
         this.elementVariableName = elementVariableName;
+        this.counterVariableName = counterVariableName;
         this.parent = parent;
     }
 
     @Override
     public String beginSectionRenderingCode() {
         return parent.beginSectionRenderingCode()
+               + "{ " + DeadlineChecks.counterDeclaration(counterVariableName)
                + String.format("for (%s %s: %s) { ",
                                elementExpession().type(),
                                elementVariableName,
-                               expression.text());
+                               expression.text())
+               + DeadlineChecks.iterationCheck(counterVariableName);
     }
 
     @Override
     public String endSectionRenderingCode() {
-        return " }" + parent.endSectionRenderingCode();
+        return " } }" + parent.endSectionRenderingCode();
     }
 
     @Override
@@ -80,13 +85,17 @@ class IterableRenderingContext implements RenderingContext {
     }
 
     JavaExpression elementExpession() {
+        return expression.model().expression(elementVariableName, elementType(expression));
+    }
+
+    static TypeMirror elementType(JavaExpression expression) {
         DeclaredType iterableType = expression.model().getSupertype((DeclaredType)expression.type(), expression.model().knownTypes()._Iterable);
         TypeMirror elementType = iterableType.getTypeArguments().iterator().next();
         if (elementType instanceof WildcardType) {
             WildcardType wildcardType = (WildcardType)elementType;
             elementType = wildcardType.getExtendsBound();
         }
-        return expression.model().expression(elementVariableName, elementType);
+        return elementType;
     }
     
     @Override
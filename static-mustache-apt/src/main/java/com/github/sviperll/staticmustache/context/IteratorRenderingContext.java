@@ -0,0 +1,181 @@
+package com.github.sviperll.staticmustache.context;
+
+import java.util.Locale;
+
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.github.sviperll.staticmustache.context.types.NativeType;
+import com.github.sviperll.staticmustache.context.types.ObjectType;
+
+/**
+ * Renders a section over a lazy source ({@code Stream}, {@code Iterator} or {@code Spliterator}
+ * and their {@code int}, {@code long} and {@code double} specializations).
+ * <p>
+ * Elements are pulled one at a time while the section body is rendered so the
+ * source is never materialized. The source expression is evaluated exactly once
+ * and streams are closed with try-with-resources when the section ends.
+ */
+class IteratorRenderingContext implements RenderingContext {
+    private final JavaExpression expression;
+    private final ObjectType sourceType;
+    private final String sourceVariableName;
+    private final String iteratorVariableName;
+    private final String elementVariableName;
+    private final String counterVariableName;
+    private final RenderingContext parent;
+
+    public IteratorRenderingContext(JavaExpression expression, ObjectType sourceType, String sourceVariableName,
+            String iteratorVariableName, String elementVariableName, String counterVariableName, RenderingContext parent) {
+        this.expression = expression;
+        this.sourceType = sourceType;
+        this.sourceVariableName = sourceVariableName;
+        this.iteratorVariableName = iteratorVariableName;
+        this.elementVariableName = elementVariableName;
+        this.counterVariableName = counterVariableName;
+        this.parent = parent;
+    }
+
+    @Override
+    public String beginSectionRenderingCode() {
+        String elementType = elementType().toString();
+        NativeType primitiveType = primitiveElementType();
+        String iteratorType = primitiveType == null
+                ? "java.util.Iterator<? extends " + elementType + ">"
+                : "java.util.PrimitiveIterator.Of" + capitalize(elementType);
+        String nextMethod = primitiveType == null ? "next" : "next" + capitalize(elementType);
+        StringBuilder sb = new StringBuilder();
+        sb.append(parent.beginSectionRenderingCode());
+        sb.append(String.format("{ %s %s = %s; if (%s != null) { ",
+                expression.type(),
+                sourceVariableName,
+                expression.text(),
+                sourceVariableName));
+        if (isStream()) {
+            sb.append(String.format("try (%s) { ", sourceVariableName));
+        }
+        else {
+            sb.append("{ ");
+        }
+        sb.append(String.format("%s %s = %s; ",
+                iteratorType,
+                iteratorVariableName,
+                iteratorExpression()));
+        sb.append(DeadlineChecks.counterDeclaration(counterVariableName));
+        sb.append(String.format("while (%s.hasNext()) { ",
+                iteratorVariableName));
+        sb.append(DeadlineChecks.iterationCheck(counterVariableName));
+        sb.append(String.format("%s %s = %s.%s(); ",
+                elementType,
+                elementVariableName,
+                iteratorVariableName,
+                nextMethod));
+        return sb.toString();
+    }
+
+    @Override
+    public String endSectionRenderingCode() {
+        return " } } } }" + parent.endSectionRenderingCode();
+    }
+
+    private boolean isStream() {
+        var knownTypes = expression.model().knownTypes();
+        return sourceType == knownTypes._Stream
+                || sourceType == knownTypes._IntStream
+                || sourceType == knownTypes._LongStream
+                || sourceType == knownTypes._DoubleStream;
+    }
+
+    private String iteratorExpression() {
+        var knownTypes = expression.model().knownTypes();
+        if (sourceType == knownTypes._Iterator
+                || sourceType == knownTypes._PrimitiveIteratorOfInt
+                || sourceType == knownTypes._PrimitiveIteratorOfLong
+                || sourceType == knownTypes._PrimitiveIteratorOfDouble) {
+            return sourceVariableName;
+        }
+        else if (sourceType == knownTypes._Spliterator
+                || sourceType == knownTypes._SpliteratorOfInt
+                || sourceType == knownTypes._SpliteratorOfLong
+                || sourceType == knownTypes._SpliteratorOfDouble) {
+            return "java.util.Spliterators.iterator(" + sourceVariableName + ")";
+        }
+        return sourceVariableName + ".iterator()";
+    }
+
+    /*
+     * Primitive sources are iterated with PrimitiveIterator so that elements
+     * are bound to a primitive local and never boxed.
+     */
+    private @Nullable NativeType primitiveElementType() {
+        var knownTypes = expression.model().knownTypes();
+        if (sourceType == knownTypes._IntStream
+                || sourceType == knownTypes._PrimitiveIteratorOfInt
+                || sourceType == knownTypes._SpliteratorOfInt) {
+            return knownTypes._int;
+        }
+        else if (sourceType == knownTypes._LongStream
+                || sourceType == knownTypes._PrimitiveIteratorOfLong
+                || sourceType == knownTypes._SpliteratorOfLong) {
+            return knownTypes._long;
+        }
+        else if (sourceType == knownTypes._DoubleStream
+                || sourceType == knownTypes._PrimitiveIteratorOfDouble
+                || sourceType == knownTypes._SpliteratorOfDouble) {
+            return knownTypes._double;
+        }
+        return null;
+    }
+
+    private static String capitalize(String name) {
+        return name.substring(0, 1).toUpperCase(Locale.US) + name.substring(1);
+    }
+
+    @Override
+    public JavaExpression getDataOrDefault(String name, JavaExpression defaultValue) throws ContextException {
+        return parent.getDataOrDefault(name, defaultValue);
+    }
+
+    @Override
+    public JavaExpression currentExpression() {
+        return expression;
+    }
+
+    @Override
+    public VariableContext createEnclosedVariableContext() {
+        return parent.createEnclosedVariableContext();
+    }
+
+    JavaExpression elementExpession() {
+        return expression.model().expression(elementVariableName, elementType());
+    }
+
+    private TypeMirror elementType() {
+        NativeType primitiveType = primitiveElementType();
+        if (primitiveType != null) {
+            return primitiveType.typeMirror();
+        }
+        var model = expression.model();
+        DeclaredType sourceDeclaredType = model.getSupertype((DeclaredType)expression.type(), sourceType);
+        TypeMirror elementType = null;
+        if (sourceDeclaredType != null && ! sourceDeclaredType.getTypeArguments().isEmpty()) {
+            elementType = sourceDeclaredType.getTypeArguments().iterator().next();
+        }
+        if (elementType instanceof WildcardType) {
+            WildcardType wildcardType = (WildcardType)elementType;
+            elementType = wildcardType.getExtendsBound();
+        }
+        if (elementType == null) {
+            elementType = model.getElements().getTypeElement(Object.class.getName()).asType();
+        }
+        return elementType;
+    }
+
+    @Override
+    public @Nullable RenderingContext getParent() {
+        return parent;
+    }
+}
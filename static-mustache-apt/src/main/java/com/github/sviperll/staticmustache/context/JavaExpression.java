@@ -35,12 +35,15 @@ import java.util.stream.Collectors;
 
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.TypeMirror;
 
+import org.eclipse.jdt.annotation.Nullable;
+
 /**
  *
  * @author Victor Nazarov <asviraspossible@gmail.com>
@@ -50,11 +53,19 @@ class JavaExpression {
     private final String text;
     private final TypeMirror type;
     private final List<String> path;
+    private final @Nullable Object constantValue;
+    private final @Nullable Element element;
     JavaExpression(JavaLanguageModel model, String text, TypeMirror type, List<String> path) {
+        this(model, text, type, path, null, null);
+    }
+    private JavaExpression(JavaLanguageModel model, String text, TypeMirror type, List<String> path,
+            @Nullable Object constantValue, @Nullable Element element) {
         this.model = model;
         this.text = text;
         this.type = type;
         this.path = path;
+        this.constantValue = constantValue;
+        this.element = element;
     }
     String text() {
         return text;
@@ -65,6 +76,18 @@ class JavaExpression {
     JavaLanguageModel model() {
         return model;
     }
+    /**
+     * @return value of a compile-time constant field or null when expression is evaluated at runtime
+     */
+    @Nullable Object constantValue() {
+        return constantValue;
+    }
+    /**
+     * @return method or field accessed by this expression or null for other expressions
+     */
+    @Nullable Element element() {
+        return element;
+    }
 
     private static List<String> concat(List<String> list, String a) {
     	list = new ArrayList<>(list);
@@ -100,7 +123,15 @@ class JavaExpression {
     public JavaExpression fieldAccess(Element element) {
         VariableElement fieldElement = (VariableElement)element;
         TypeMirror memberType = model.asMemberOf((DeclaredType)type, fieldElement);
-        return new JavaExpression(model, text + "." + fieldElement.getSimpleName(), memberType, concatPath(fieldElement.getSimpleName().toString()));
+        return new JavaExpression(model, text + "." + fieldElement.getSimpleName(), memberType, concatPath(fieldElement.getSimpleName().toString()), null, fieldElement);
+    }
+
+    /**
+     * Static final field initialized with a compile-time constant.
+     */
+    public JavaExpression constantFieldAccess(TypeElement owner, VariableElement fieldElement) {
+        return new JavaExpression(model, owner.getQualifiedName() + "." + fieldElement.getSimpleName(), fieldElement.asType(),
+                concatPath(fieldElement.getSimpleName().toString()), fieldElement.getConstantValue(), fieldElement);
     }
 
     public JavaExpression methodCall(Element element, JavaExpression... arguments) {
@@ -116,7 +147,7 @@ class JavaExpression {
             }
         }
         result.append(")");
-        return new JavaExpression(model, result.toString(), executableType.getReturnType(), concatPath(executableElement.getSimpleName().toString()));
+        return new JavaExpression(model, result.toString(), executableType.getReturnType(), concatPath(executableElement.getSimpleName().toString()), null, executableElement);
     }
 
     public ExecutableType methodSignature(Element element) {
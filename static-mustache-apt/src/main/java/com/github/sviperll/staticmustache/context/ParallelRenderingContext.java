@@ -0,0 +1,90 @@
+package com.github.sviperll.staticmustache.context;
+
+import javax.lang.model.type.TypeMirror;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Renders a {@code @ParallelSection} list or array in chunks with {@code ParallelSections.render}.
+ * <p>
+ * Section body becomes the body of a lambda that gets its own writers,
+ * shadowing the writer fields of the renderer, so the body is generated as usual.
+ */
+class ParallelRenderingContext implements RenderingContext {
+    private final JavaExpression expression;
+    private final String listExpression;
+    private final TypeMirror elementType;
+    private final int chunkSize;
+    private final String escapingAppendableMethod;
+    private final String chunkVariableName;
+    private final String elementVariableName;
+    private final String counterVariableName;
+    private final VariableContext variables;
+    private final RenderingContext parent;
+
+    ParallelRenderingContext(JavaExpression expression, String listExpression, TypeMirror elementType, int chunkSize,
+            String escapingAppendableMethod, String chunkVariableName, String elementVariableName,
+            String counterVariableName, VariableContext variables, RenderingContext parent) {
+        this.expression = expression;
+        this.listExpression = listExpression;
+        this.elementType = elementType;
+        this.chunkSize = chunkSize;
+        this.escapingAppendableMethod = escapingAppendableMethod;
+        this.chunkVariableName = chunkVariableName;
+        this.elementVariableName = elementVariableName;
+        this.counterVariableName = counterVariableName;
+        this.variables = variables;
+        this.parent = parent;
+    }
+
+    @Override
+    public String beginSectionRenderingCode() {
+        return parent.beginSectionRenderingCode()
+               + DeadlineChecks.sectionCheck()
+               + String.format("com.github.sviperll.staticmustache.text.ParallelSections.render(%s, %d, %s, (%s, %s) -> { ",
+                               listExpression,
+                               chunkSize,
+                               variables.unescapedWriter(),
+                               chunkVariableName,
+                               variables.unescapedWriter())
+               + String.format("java.lang.Appendable %s = %s(%s); ",
+                               variables.writer(),
+                               escapingAppendableMethod,
+                               variables.unescapedWriter())
+               + "int " + counterVariableName + " = 0; "
+               + String.format("for (%s %s: %s) { ",
+                               elementType,
+                               elementVariableName,
+                               chunkVariableName)
+               + DeadlineChecks.iterationCheck(counterVariableName);
+    }
+
+    @Override
+    public String endSectionRenderingCode() {
+        return " } });" + parent.endSectionRenderingCode();
+    }
+
+    JavaExpression elementExpession() {
+        return expression.model().expression(elementVariableName, elementType);
+    }
+
+    @Override
+    public JavaExpression getDataOrDefault(String name, JavaExpression defaultValue) throws ContextException {
+        return parent.getDataOrDefault(name, defaultValue);
+    }
+
+    @Override
+    public JavaExpression currentExpression() {
+        return expression;
+    }
+
+    @Override
+    public VariableContext createEnclosedVariableContext() {
+        return parent.createEnclosedVariableContext();
+    }
+
+    @Override
+    public @Nullable RenderingContext getParent() {
+        return parent;
+    }
+}
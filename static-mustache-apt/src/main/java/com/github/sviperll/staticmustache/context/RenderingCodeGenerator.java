@@ -29,20 +29,36 @@
  */
 package com.github.sviperll.staticmustache.context;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
 import java.text.MessageFormat;
+import java.util.List;
 
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
 
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.github.sviperll.staticmustache.Deferred;
+import com.github.sviperll.staticmustache.EscapeFree;
+import com.github.sviperll.staticmustache.ParallelSection;
 import com.github.sviperll.staticmustache.context.TemplateCompilerContext.ChildType;
 import com.github.sviperll.staticmustache.context.types.KnownType;
 import com.github.sviperll.staticmustache.context.types.KnownTypes;
 import com.github.sviperll.staticmustache.context.types.NativeType;
 import com.github.sviperll.staticmustache.context.types.ObjectType;
+import com.github.sviperll.staticmustache.text.formats.Html;
+import com.github.sviperll.staticmustache.text.formats.PlainText;
+import com.github.sviperll.staticmustache.text.formats.TextFormat;
 import com.snaphop.staticmustache.apt.FormatterTypes;
 
 /**
@@ -67,12 +83,15 @@ public class RenderingCodeGenerator {
     private final JavaLanguageModel javaModel;
     private final FormatterTypes formatterTypes;
     private final TypeElement templateFormatElement;
+    private final boolean skipsEscapeFree;
 
     private RenderingCodeGenerator(KnownTypes types, JavaLanguageModel javaModel, FormatterTypes formatterTypes, TypeElement formatClass) {
         this.knownTypes = types;
         this.javaModel = javaModel;
         this.formatterTypes = formatterTypes;
         this.templateFormatElement = formatClass;
+        TextFormat textFormat = formatClass.getAnnotation(TextFormat.class);
+        this.skipsEscapeFree = textFormat != null && textFormat.skipsEscapeFree();
 
     }
     String generateRenderingCode(JavaExpression expression, VariableContext variables) throws TypeException {
@@ -90,6 +109,14 @@ public class RenderingCodeGenerator {
         
         KnownType knownType = javaModel.resolvetype(type).orElse(null);
         
+        /*
+         * Output that can never contain characters needing escaping
+         * skips the escaping writer altogether when the format allows it.
+         */
+        if (skipsEscapeFree && isEscapeFree(type, knownType)) {
+            variables = variables.unescaped();
+        }
+        
         if (knownType != null && knownType instanceof ObjectType) {
             String cname = knownType.renderClassName() + ".class";
             return renderFormatCall(variables, path, text, cname);
@@ -100,7 +127,7 @@ public class RenderingCodeGenerator {
         }
         else if (type instanceof DeclaredType dt) {
             String cname = javaModel.eraseType(dt);
-            if (formatterTypes.isMatch(cname)) {
+            if (formatterTypes.isMatch(cname) || isAnnotatedEscapeFree(dt)) {
                 return renderFormatCall(variables, path, text, cname + ".class");
             }
             //return variables.writer() + ".append((" + text + ").toString());";
@@ -109,6 +136,69 @@ public class RenderingCodeGenerator {
         throw new TypeException(MessageFormat
                 .format("Can''t render {0} expression of {1} type as it is not an allowed type. ", text, type));
     }
+    /*
+     * Constants are formatted the way the default formatter would format them
+     * and escaped here so that they become part of the static text.
+     * Floating point constants are left to the runtime as their float and double
+     * forms differ and escaping is only known for the built-in formats.
+     */
+    @Nullable String renderConstant(Object value, boolean unescaped) {
+        if (value instanceof Float || value instanceof Double) {
+            return null;
+        }
+        String text = String.valueOf(value);
+        if (unescaped || value instanceof Number || value instanceof Boolean) {
+            return text;
+        }
+        String formatName = templateFormatElement.getQualifiedName().toString();
+        if (formatName.equals(PlainText.class.getName())) {
+            return text;
+        }
+        if (formatName.equals(Html.class.getName())) {
+            StringBuilder sb = new StringBuilder();
+            try {
+                Html.createEscapingAppendable(sb).append(text);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return sb.toString();
+        }
+        return null;
+    }
+
+    private boolean isEscapeFree(TypeMirror type, @Nullable KnownType knownType) {
+        if (type instanceof DeclaredType dt && isAnnotatedEscapeFree(dt)) {
+            return true;
+        }
+        if (knownType != null) {
+            return knownTypes.isEscapeFree(knownType);
+        }
+        if (type instanceof DeclaredType dt) {
+            return isEscapeFreeEnum(javaModel.asElement(dt));
+        }
+        return false;
+    }
+
+    private boolean isAnnotatedEscapeFree(DeclaredType type) {
+        return javaModel.asElement(type).getAnnotation(EscapeFree.class) != null;
+    }
+
+    /*
+     * An enum is only implicitly final when none of its constants have a class body
+     * so together with an inherited toString the output is always a constant name.
+     */
+    private boolean isEscapeFreeEnum(TypeElement element) {
+        if (element.getKind() != ElementKind.ENUM || ! element.getModifiers().contains(Modifier.FINAL)) {
+            return false;
+        }
+        var toString = ElementFilter.methodsIn(javaModel.getElements().getAllMembers(element)).stream()
+                .filter(e -> e.getSimpleName().contentEquals("toString") && e.getParameters().isEmpty())
+                .findFirst();
+        return toString
+                .map(e -> ((TypeElement) e.getEnclosingElement()).getQualifiedName().contentEquals(Enum.class.getName()))
+                .orElse(false);
+    }
+
     private String renderFormatCall(VariableContext variables, String path, String text, String cname) {
         return "format(" + variables.writer() //
                 + ", " + "\"" + path + "\"" //
@@ -153,13 +243,49 @@ public class RenderingCodeGenerator {
             return new OptionalRenderingContext(expression, javaModel.asElement(declaredType), enclosing);
             //RenderingContext nullableContext = nullableRenderingContext(expression.methodCall(templateFormatElement, null), enclosing);
 
+        } else if (javaModel.isType(expression.type(), knownTypes._Future)) {
+            if (isAnnotated(expression, Deferred.class) && isLambdaAllowed(enclosing)) {
+                VariableContext variableContext = enclosing.createEnclosedVariableContext();
+                String valueVariableName = variableContext.introduceNewNameLike("deferred");
+                RenderingContext variables = new VariablesRenderingContext(variableContext, enclosing);
+                DeferredRenderingContext deferred = new DeferredRenderingContext(expression, valueVariableName,
+                        escapingAppendableMethod(), variableContext, variables);
+                return createRenderingContext(childType, deferred.valueExpression(), deferred);
+            }
+            FutureRenderingContext future = futureRenderingContext(expression, enclosing);
+            return createRenderingContext(childType, future.valueExpression(), future);
+        } else if (isSupplier(expression.type())) {
+            SupplierRenderingContext supplier = supplierRenderingContext(expression, enclosing);
+            return createRenderingContext(childType, supplier.valueExpression(), supplier);
         } else if (javaModel.isType(expression.type(), knownTypes._Iterable)) {
             RenderingContext nullable = nullableRenderingContext(expression, enclosing);
+            ParallelSection parallel = parallelSection(expression, nullable);
+            if (parallel != null) {
+                TypeElement listElement = javaModel.getElements().getTypeElement(List.class.getName());
+                if (! javaModel.isSubtype(expression.type(), javaModel.getGenericDeclaredType(listElement))) {
+                    throw new TypeException(MessageFormat.format("Can''t render {0} expression of {1} type in parallel: only lists and arrays can be split into chunks",
+                            expression.text(), expression.type()));
+                }
+                return parallelRenderingContext(childType, expression, expression.text(),
+                        IterableRenderingContext.elementType(expression), parallel, nullable);
+            }
             VariableContext variableContext = nullable.createEnclosedVariableContext();
             String elementVariableName = variableContext.introduceNewNameLike("element");
+            String counterVariableName = variableContext.introduceNewNameLike("iterations");
             RenderingContext variables = new VariablesRenderingContext(variableContext, nullable);
-            IterableRenderingContext iterable = new IterableRenderingContext(expression, elementVariableName, variables);
+            IterableRenderingContext iterable = new IterableRenderingContext(expression, elementVariableName, counterVariableName, variables);
             return createRenderingContext(childType, iterable.elementExpession(), iterable);
+        } else if (lazySourceType(expression.type()) != null) {
+            ObjectType sourceType = lazySourceType(expression.type());
+            VariableContext variableContext = enclosing.createEnclosedVariableContext();
+            String sourceVariableName = variableContext.introduceNewNameLike("source");
+            String iteratorVariableName = variableContext.introduceNewNameLike("iterator");
+            String elementVariableName = variableContext.introduceNewNameLike("element");
+            String counterVariableName = variableContext.introduceNewNameLike("iterations");
+            RenderingContext variables = new VariablesRenderingContext(variableContext, enclosing);
+            IteratorRenderingContext iterator = new IteratorRenderingContext(expression, sourceType,
+                    sourceVariableName, iteratorVariableName, elementVariableName, counterVariableName, variables);
+            return createRenderingContext(childType, iterator.elementExpession(), iterator);
         } else if (javaModel.isType(expression.type(), knownTypes._Map)) {
             RenderingContext nullable = nullableRenderingContext(expression, enclosing);
             DeclaredType mapType = (DeclaredType) expression.type();
@@ -168,6 +294,12 @@ public class RenderingCodeGenerator {
             
         } else if (expression.type().getKind() == TypeKind.ARRAY) {
             RenderingContext nullable = nullableRenderingContext(expression, enclosing);
+            ParallelSection parallel = parallelSection(expression, nullable);
+            TypeMirror componentType = ((ArrayType) expression.type()).getComponentType();
+            if (parallel != null && ! componentType.getKind().isPrimitive()) {
+                return parallelRenderingContext(childType, expression, "java.util.Arrays.asList(" + expression.text() + ")",
+                        componentType, parallel, nullable);
+            }
             VariableContext variableContext = nullable.createEnclosedVariableContext();
             String indexVariableName = variableContext.introduceNewNameLike("i");
             RenderingContext variables = new VariablesRenderingContext(variableContext, nullable);
@@ -189,6 +321,9 @@ public class RenderingCodeGenerator {
         }
     }
 
+    /*
+     * Conditions evaluate the expression once, since it may be a supplier call or a wait for a future.
+     */
     RenderingContext createInvertedRenderingContext(JavaExpression expression, RenderingContext enclosing) throws TypeException {
         if (expression.type() instanceof WildcardType) {
             WildcardType wildcardType = (WildcardType)expression.type();
@@ -196,22 +331,169 @@ public class RenderingCodeGenerator {
         } else if (javaModel.isType(expression.type(), knownTypes._boolean)) {
             return new BooleanRenderingContext("!(" + expression.text() + ")", enclosing);
         } else if (javaModel.isType(expression.type(), knownTypes._Boolean)) {
-            return new BooleanRenderingContext("(" + expression.text() + ") == null || !(" + expression.text() + ")", enclosing);
+            return new BooleanRenderingContext("!java.lang.Boolean.TRUE.equals(" + expression.text() + ")", enclosing);
         } else if (javaModel.isType(expression.type(), knownTypes._Optional)) {
             DeclaredType dt = (DeclaredType) expression.type();
             OptionalRenderingContext declaredContext = new OptionalRenderingContext(expression, javaModel.asElement(dt), enclosing);
             return new BooleanRenderingContext("(" + declaredContext.currentExpression().text() + ") == null", declaredContext);
+        } else if (javaModel.isType(expression.type(), knownTypes._Future)) {
+            FutureRenderingContext future = futureRenderingContext(expression, enclosing);
+            return createInvertedRenderingContext(future.awaitExpression(), enclosing);
+        } else if (isSupplier(expression.type())) {
+            SupplierRenderingContext supplier = supplierRenderingContext(expression, enclosing);
+            return createInvertedRenderingContext(supplier.getExpression(), enclosing);
+        } else if (lazySourceType(expression.type()) != null) {
+            /*
+             * Probing a stream, iterator or spliterator for emptiness would consume it
+             * (or depend on whether a previous section already consumed it).
+             */
+            throw new TypeException(MessageFormat.format("Can''t invert {0} expression of {1} type: "
+                                                         + "a lazy source can''t be tested for emptiness without consuming it, "
+                                                         + "use an Optional or a boolean flag instead",
+                                                         expression.text(),
+                                                         expression.type()));
         } else if (expression.type() instanceof DeclaredType dt) {
             DeclaredTypeRenderingContext declaredContext = new DeclaredTypeRenderingContext(expression, javaModel.asElement(dt), enclosing);
             return new BooleanRenderingContext("(" + expression.text() + ") == null", declaredContext);
         } else if (expression.type() instanceof ArrayType) {
-            return new BooleanRenderingContext("(" + expression.text() + ") == null || (" + expression.text() + ").length == 0", enclosing);
+            return new BooleanRenderingContext("java.util.Optional.ofNullable(" + expression.text()
+                    + ").map(java.lang.reflect.Array::getLength).orElse(0) == 0", enclosing);
         } else
             throw new TypeException(MessageFormat.format("Can''t invert {0} expression of {1} type",
                                                          expression.text(),
                                                          expression.type()));
     }
 
+    private @Nullable ParallelSection parallelSection(JavaExpression expression, RenderingContext enclosing) {
+        Element element = expression.element();
+        ParallelSection parallel = element == null ? null : element.getAnnotation(ParallelSection.class);
+        return parallel != null && isLambdaAllowed(enclosing) ? parallel : null;
+    }
+
+    private boolean isAnnotated(JavaExpression expression, Class<? extends Annotation> annotation) {
+        Element element = expression.element();
+        return element != null && element.getAnnotation(annotation) != null;
+    }
+
+    /*
+     * Parallel and deferred section bodies are rendered from a lambda. Inside another such section
+     * the writers are already lambda parameters and inside an array section the body would have
+     * to capture the loop index, so these sections are rendered in place there.
+     */
+    private static boolean isLambdaAllowed(RenderingContext enclosing) {
+        for (RenderingContext c = enclosing; c != null; c = c.getParent()) {
+            if (c instanceof ParallelRenderingContext
+                    || c instanceof DeferredRenderingContext
+                    || c instanceof ArrayRenderingContext) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String escapingAppendableMethod() {
+        return templateFormatElement.getQualifiedName() + "."
+                + templateFormatElement.getAnnotation(TextFormat.class).createEscapingAppendableMethodName();
+    }
+
+    private RenderingContext parallelRenderingContext(ChildType childType, JavaExpression expression, String listExpression,
+            TypeMirror elementType, ParallelSection parallel, RenderingContext enclosing) throws TypeException {
+        VariableContext variableContext = enclosing.createEnclosedVariableContext();
+        String chunkVariableName = variableContext.introduceNewNameLike("chunk");
+        String elementVariableName = variableContext.introduceNewNameLike("element");
+        String counterVariableName = variableContext.introduceNewNameLike("iterations");
+        RenderingContext variables = new VariablesRenderingContext(variableContext, enclosing);
+        ParallelRenderingContext parallelContext = new ParallelRenderingContext(expression, listExpression, elementType,
+                parallel.chunkSize(), escapingAppendableMethod(), chunkVariableName, elementVariableName,
+                counterVariableName, variableContext, variables);
+        return createRenderingContext(childType, parallelContext.elementExpession(), parallelContext);
+    }
+
+    private FutureRenderingContext futureRenderingContext(JavaExpression expression, RenderingContext enclosing) {
+        VariableContext variableContext = enclosing.createEnclosedVariableContext();
+        String valueVariableName = variableContext.introduceNewNameLike("value");
+        RenderingContext variables = new VariablesRenderingContext(variableContext, enclosing);
+        return new FutureRenderingContext(expression, valueVariableName, variableContext.unescapedWriter(), variables);
+    }
+
+    private boolean isSupplier(TypeMirror type) {
+        return javaModel.isType(type, knownTypes._Supplier)
+                || javaModel.isType(type, knownTypes._IntSupplier)
+                || javaModel.isType(type, knownTypes._LongSupplier)
+                || javaModel.isType(type, knownTypes._DoubleSupplier)
+                || javaModel.isType(type, knownTypes._BooleanSupplier);
+    }
+
+    /*
+     * Primitive suppliers return their value without boxing.
+     */
+    private SupplierRenderingContext supplierRenderingContext(JavaExpression expression, RenderingContext enclosing) {
+        TypeMirror type = expression.type();
+        String getterName;
+        TypeMirror valueType;
+        if (javaModel.isType(type, knownTypes._IntSupplier)) {
+            getterName = "getAsInt";
+            valueType = knownTypes._int.typeMirror();
+        } else if (javaModel.isType(type, knownTypes._LongSupplier)) {
+            getterName = "getAsLong";
+            valueType = knownTypes._long.typeMirror();
+        } else if (javaModel.isType(type, knownTypes._DoubleSupplier)) {
+            getterName = "getAsDouble";
+            valueType = knownTypes._double.typeMirror();
+        } else if (javaModel.isType(type, knownTypes._BooleanSupplier)) {
+            getterName = "getAsBoolean";
+            valueType = knownTypes._boolean.typeMirror();
+        } else {
+            getterName = "get";
+            valueType = supplierValueType((DeclaredType) type);
+        }
+        VariableContext variableContext = enclosing.createEnclosedVariableContext();
+        String valueVariableName = variableContext.introduceNewNameLike("value");
+        RenderingContext variables = new VariablesRenderingContext(variableContext, enclosing);
+        return new SupplierRenderingContext(expression, valueType, getterName, valueVariableName, variables);
+    }
+
+    private TypeMirror supplierValueType(DeclaredType type) {
+        DeclaredType supplierType = javaModel.getSupertype(type, knownTypes._Supplier);
+        TypeMirror valueType = null;
+        if (supplierType != null && ! supplierType.getTypeArguments().isEmpty()) {
+            valueType = supplierType.getTypeArguments().iterator().next();
+        }
+        if (valueType instanceof WildcardType wildcardType) {
+            valueType = wildcardType.getExtendsBound();
+        }
+        if (valueType == null) {
+            valueType = javaModel.getElements().getTypeElement(Object.class.getName()).asType();
+        }
+        return valueType;
+    }
+
+    private @Nullable ObjectType lazySourceType(TypeMirror type) {
+        /*
+         * Primitive specializations come first as they are also
+         * subtypes of the boxed Iterator and Spliterator.
+         */
+        List<ObjectType> lazySourceTypes = List.of(
+                knownTypes._IntStream,
+                knownTypes._LongStream,
+                knownTypes._DoubleStream,
+                knownTypes._PrimitiveIteratorOfInt,
+                knownTypes._PrimitiveIteratorOfLong,
+                knownTypes._PrimitiveIteratorOfDouble,
+                knownTypes._SpliteratorOfInt,
+                knownTypes._SpliteratorOfLong,
+                knownTypes._SpliteratorOfDouble,
+                knownTypes._Stream,
+                knownTypes._Iterator,
+                knownTypes._Spliterator);
+        for (ObjectType sourceType : lazySourceTypes) {
+            if (javaModel.isType(type, sourceType)) {
+                return sourceType;
+            }
+        }
+        return null;
+    }
+
     private RenderingContext nullableRenderingContext(JavaExpression expression, RenderingContext context) {
         return new BooleanRenderingContext(expression.text() + " != null", context);
     }
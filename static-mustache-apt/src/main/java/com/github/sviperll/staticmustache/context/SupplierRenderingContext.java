@@ -0,0 +1,74 @@
+package com.github.sviperll.staticmustache.context;
+
+import javax.lang.model.type.TypeMirror;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Calls a {@code Supplier} or a primitive supplier only when rendering reaches it.
+ * <p>
+ * The value is bound to a variable so that the body of a section or the rest of a dotted path
+ * calls the supplier once. Inverted sections only need a condition, so the supplier is called in place.
+ */
+class SupplierRenderingContext implements RenderingContext {
+    private final JavaExpression expression;
+    private final TypeMirror valueType;
+    private final String getterName;
+    private final String valueVariableName;
+    private final RenderingContext parent;
+
+    SupplierRenderingContext(JavaExpression expression, TypeMirror valueType, String getterName,
+            String valueVariableName, RenderingContext parent) {
+        this.expression = expression;
+        this.valueType = valueType;
+        this.getterName = getterName;
+        this.valueVariableName = valueVariableName;
+        this.parent = parent;
+    }
+
+    @Override
+    public String beginSectionRenderingCode() {
+        return parent.beginSectionRenderingCode()
+               + String.format("{ %s %s = %s; ",
+                               valueType,
+                               valueVariableName,
+                               getCode());
+    }
+
+    private String getCode() {
+        return "(" + expression.text() + ")." + getterName + "()";
+    }
+
+    @Override
+    public String endSectionRenderingCode() {
+        return " }" + parent.endSectionRenderingCode();
+    }
+
+    @Override
+    public JavaExpression getDataOrDefault(String name, JavaExpression defaultValue) throws ContextException {
+        return parent.getDataOrDefault(name, defaultValue);
+    }
+
+    @Override
+    public JavaExpression currentExpression() {
+        return expression;
+    }
+
+    @Override
+    public VariableContext createEnclosedVariableContext() {
+        return parent.createEnclosedVariableContext();
+    }
+
+    JavaExpression valueExpression() {
+        return expression.model().expression(valueVariableName, valueType);
+    }
+
+    JavaExpression getExpression() {
+        return expression.model().expression(getCode(), valueType);
+    }
+
+    @Override
+    public @Nullable RenderingContext getParent() {
+        return parent;
+    }
+}
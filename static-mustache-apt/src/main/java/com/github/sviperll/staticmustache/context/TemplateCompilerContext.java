@@ -77,6 +77,19 @@ public class TemplateCompilerContext {
         return beginSectionRenderingCode() + sectionBodyRenderingCode(variables.unescaped()) + endSectionRenderingCode();
     }
 
+    /**
+     * Variables bound directly to a compile-time constant are rendered by the compiler.
+     *
+     * @return rendered text of the variable or null when it has to be rendered at runtime
+     */
+    public @Nullable String constantText(boolean unescaped) {
+        Object value = context.currentExpression().constantValue();
+        if (value == null || ! context.beginSectionRenderingCode().isEmpty()) {
+            return null;
+        }
+        return generator.renderConstant(value, unescaped);
+    }
+
     public String beginSectionRenderingCode() {
         return  debugComment() +  context.beginSectionRenderingCode();
     }
@@ -191,6 +204,34 @@ public class TemplateCompilerContext {
         return enclosedField;
     }
 
+    /**
+     * @return true when the section body is rendered once for every element of a collection
+     */
+    public boolean isLoop() {
+        for (RenderingContext c = context; c != null && ! (c instanceof OwnedRenderingContext); c = c.getParent()) {
+            if (c instanceof IterableRenderingContext
+                    || c instanceof ArrayRenderingContext
+                    || c instanceof IteratorRenderingContext
+                    || c instanceof ParallelRenderingContext) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true when the section body is rendered from a lambda, in parallel or deferred,
+     *         so it can't update local variables declared before the section
+     */
+    public boolean isLambdaBody() {
+        for (RenderingContext c = context; c != null && ! (c instanceof OwnedRenderingContext); c = c.getParent()) {
+            if (c instanceof ParallelRenderingContext || c instanceof DeferredRenderingContext) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean isEnclosed() {
         return enclosedRelation != null;
     }
@@ -203,6 +244,21 @@ public class TemplateCompilerContext {
         return enclosedRelation.parentContext();
     }
 
+    /**
+     * @return expression of the template data when names are resolved against it alone, outside of any section,
+     *         otherwise null
+     */
+    public @Nullable String rootDataExpression() {
+        if (context instanceof DeclaredTypeRenderingContext && context.getParent() instanceof RootRenderingContext) {
+            return context.currentExpression().text();
+        }
+        return null;
+    }
+
+    public String writerExpression() {
+        return variables.writer();
+    }
+
     public String unescapedWriterExpression() {
         return variables.unescapedWriter();
     }
@@ -32,15 +32,29 @@ package com.github.sviperll.staticmustache.context.types;
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
 import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
+import com.github.sviperll.staticmustache.spi.AppendableValue;
 import com.github.sviperll.staticmustache.text.Layoutable;
 import com.github.sviperll.staticmustache.text.RenderFunction;
 
@@ -66,6 +80,12 @@ public class KnownTypes {
     public final ObjectType _Error;
     public final ObjectType _RuntimeException;
     public final ObjectType _Optional;
+    public final ObjectType _Future;
+    public final ObjectType _Supplier;
+    public final ObjectType _IntSupplier;
+    public final ObjectType _LongSupplier;
+    public final ObjectType _DoubleSupplier;
+    public final ObjectType _BooleanSupplier;
     
     public final ObjectType _Integer;
     public final ObjectType _Short;
@@ -75,9 +95,23 @@ public class KnownTypes {
     public final ObjectType _Float;
     public final ObjectType _Double;
     public final ObjectType _String;
+    public final ObjectType _CharSequence;
+    public final ObjectType _AppendableValue;
     public final ObjectType _Boolean;
     public final ObjectType _Iterable;
     public final ObjectType _Map;
+    public final ObjectType _Stream;
+    public final ObjectType _Iterator;
+    public final ObjectType _Spliterator;
+    public final ObjectType _IntStream;
+    public final ObjectType _LongStream;
+    public final ObjectType _DoubleStream;
+    public final ObjectType _PrimitiveIteratorOfInt;
+    public final ObjectType _PrimitiveIteratorOfLong;
+    public final ObjectType _PrimitiveIteratorOfDouble;
+    public final ObjectType _SpliteratorOfInt;
+    public final ObjectType _SpliteratorOfLong;
+    public final ObjectType _SpliteratorOfDouble;
     public final ObjectType _UUID;
     public final ObjectType _URI;
     public final ObjectType _URL;
@@ -87,6 +121,7 @@ public class KnownTypes {
     
     private final List<NativeType> nativeTypes;
     private final List<ObjectType> objectTypes;
+    private final List<KnownType> escapeFreeTypes;
 
     
     private KnownTypes(Elements declarations, Types types) {
@@ -105,6 +140,8 @@ public class KnownTypes {
         
         _Renderable = b.objectType(RenderFunction.class);
         _String = b.objectType(String.class);
+        _CharSequence = b.objectType(CharSequence.class);
+        _AppendableValue = b.objectType(AppendableValue.class);
         
         _Integer = b.objectType(Integer.class);
         _Short = b.objectType(Short.class);
@@ -117,8 +154,26 @@ public class KnownTypes {
         _Error = b.objectType(Error.class);
         _RuntimeException = b.objectType(RuntimeException.class);
         _Optional = b.objectType(Optional.class);
+        _Future = b.objectType(Future.class);
+        _Supplier = b.objectType(Supplier.class);
+        _IntSupplier = b.objectType(IntSupplier.class);
+        _LongSupplier = b.objectType(LongSupplier.class);
+        _DoubleSupplier = b.objectType(DoubleSupplier.class);
+        _BooleanSupplier = b.objectType(BooleanSupplier.class);
         _Iterable = b.objectType(Iterable.class);
         _Map = b.objectType(Map.class);
+        _Stream = b.objectType(Stream.class);
+        _Iterator = b.objectType(Iterator.class);
+        _Spliterator = b.objectType(Spliterator.class);
+        _IntStream = b.objectType(IntStream.class);
+        _LongStream = b.objectType(LongStream.class);
+        _DoubleStream = b.objectType(DoubleStream.class);
+        _PrimitiveIteratorOfInt = b.objectType(PrimitiveIterator.OfInt.class);
+        _PrimitiveIteratorOfLong = b.objectType(PrimitiveIterator.OfLong.class);
+        _PrimitiveIteratorOfDouble = b.objectType(PrimitiveIterator.OfDouble.class);
+        _SpliteratorOfInt = b.objectType(Spliterator.OfInt.class);
+        _SpliteratorOfLong = b.objectType(Spliterator.OfLong.class);
+        _SpliteratorOfDouble = b.objectType(Spliterator.OfDouble.class);
         _UUID = b.objectType(UUID.class);
         _URI = b.objectType(URI.class);
         _URL = b.objectType(URL.class);
@@ -130,6 +185,15 @@ public class KnownTypes {
         this.nativeTypes = List.copyOf(b.nativeTypes);
         this.objectTypes = List.copyOf(b.objectTypes);
         
+        /*
+         * The formatted output of these types never contains characters that need escaping.
+         * char is omitted as it can be any character.
+         */
+        this.escapeFreeTypes = List.of(
+                _int, _short, _long, _byte, _float, _double, _boolean,
+                _Integer, _Short, _Long, _Byte, _Float, _Double, _Boolean,
+                _UUID);
+        
     }
     
     public List<NativeType> getNativeTypes() {
@@ -140,6 +204,10 @@ public class KnownTypes {
         return objectTypes;
     }
     
+    public boolean isEscapeFree(KnownType knownType) {
+        return escapeFreeTypes.contains(knownType);
+    }
+    
     private static class Builder  {
         private final List<NativeType> nativeTypes = new ArrayList<>();
         private final List<ObjectType> objectTypes = new ArrayList<>();
@@ -160,7 +228,7 @@ public class KnownTypes {
         }
         
         private ObjectType objectType(Class<?> type) {
-            var typeElement = elements.getTypeElement(type.getName());
+            var typeElement = elements.getTypeElement(type.getCanonicalName());
             var ot = new ObjectType(typeElement, type);
             objectTypes.add(ot);
             return ot;
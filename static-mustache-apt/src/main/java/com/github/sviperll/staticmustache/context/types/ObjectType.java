@@ -10,6 +10,6 @@ public record ObjectType(TypeElement typeElement, Class<?> type) implements Know
     
     @Override
     public String renderClassName() {
-        return type.getName();
+        return type.getCanonicalName();
     }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.snaphop.staticmustache.apt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Block overrides of template inheritance, resolved at compile time.
+ * <p>
+ * The <code>{{$block}}</code> tags inside a <code>{{&lt;parent}}</code> tag replace the blocks of the same name
+ * in the parent template, which is then inlined. Anything else inside the parent tag is ignored.
+ * Overrides given by an enclosing template win over the overrides of the templates it inherits from,
+ * so a grandchild can override a block that its parent already overrides.
+ */
+final class BlockOverrides {
+
+    static final BlockOverrides EMPTY = new BlockOverrides(Map.of());
+
+    private final Map<String, List<PositionedToken<MustacheToken>>> blocks;
+
+    private BlockOverrides(Map<String, List<PositionedToken<MustacheToken>>> blocks) {
+        this.blocks = blocks;
+    }
+
+    /**
+     * @return tokens of the overriding block or null to render the default content
+     */
+    @Nullable List<PositionedToken<MustacheToken>> get(String name) {
+        return blocks.get(name);
+    }
+
+    boolean isEmpty() {
+        return blocks.isEmpty();
+    }
+
+    /**
+     * @param body tokens inside a parent tag
+     * @return overrides for the parent template
+     */
+    BlockOverrides inherit(List<PositionedToken<MustacheToken>> body) throws ProcessingException {
+        Map<String, List<PositionedToken<MustacheToken>>> result = new HashMap<>();
+        TokenCollector block = null;
+        int level = 0;
+        for (var token : body) {
+            if (block != null) {
+                if (block.add(token)) {
+                    result.put(block.name, block.tokens());
+                    block = null;
+                }
+                continue;
+            }
+            Tag tag = Tag.of(token);
+            if (level == 0 && tag.kind() == Tag.Kind.BLOCK) {
+                block = new TokenCollector(Objects.requireNonNull(tag.name()));
+            }
+            else if (tag.kind() == Tag.Kind.END) {
+                level--;
+            }
+            else if (tag.kind() == Tag.Kind.BEGIN || tag.kind() == Tag.Kind.BLOCK) {
+                level++;
+            }
+        }
+        result.putAll(blocks);
+        return new BlockOverrides(Map.copyOf(result));
+    }
+
+    /**
+     * Collects the tokens of a section up to its closing tag.
+     */
+    static final class TokenCollector {
+        private final String name;
+        private final List<PositionedToken<MustacheToken>> tokens = new ArrayList<>();
+        private int level = 0;
+
+        TokenCollector(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return true when the token closes the section, it is not collected then
+         */
+        boolean add(PositionedToken<MustacheToken> token) throws ProcessingException {
+            Tag tag = Tag.of(token);
+            switch (tag.kind()) {
+            case END -> {
+                if (level == 0) {
+                    if (! name.equals(tag.name())) {
+                        throw new ProcessingException(token.position(), "Closing " + tag.name() + " block instead of " + name);
+                    }
+                    return true;
+                }
+                level--;
+            }
+            case BEGIN, BLOCK -> level++;
+            case END_OF_FILE -> throw new ProcessingException(token.position(), "Unclosed " + name + " block at end of file");
+            case OTHER -> {
+            }
+            }
+            tokens.add(token);
+            return false;
+        }
+
+        List<PositionedToken<MustacheToken>> tokens() {
+            return List.copyOf(tokens);
+        }
+    }
+
+    private record Tag(Kind kind, @Nullable String name) {
+        enum Kind {
+            BEGIN, BLOCK, END, END_OF_FILE, OTHER
+        }
+
+        private static final Tag OTHER = new Tag(Kind.OTHER, null);
+        private static final Tag BEGIN = new Tag(Kind.BEGIN, null);
+        private static final Tag END_OF_FILE = new Tag(Kind.END_OF_FILE, null);
+
+        static Tag of(PositionedToken<MustacheToken> token) {
+            return token.innerToken().accept(new MustacheToken.Visitor<Tag, RuntimeException>() {
+                @Override
+                public Tag beginSection(String name) {
+                    return BEGIN;
+                }
+                @Override
+                public Tag beginInvertedSection(String name) {
+                    return BEGIN;
+                }
+                @Override
+                public Tag beginParentSection(String name) {
+                    return BEGIN;
+                }
+                @Override
+                public Tag beginBlockSection(String name) {
+                    return new Tag(Kind.BLOCK, name);
+                }
+                @Override
+                public Tag endSection(String name) {
+                    return new Tag(Kind.END, name);
+                }
+                @Override
+                public Tag variable(String name) {
+                    return OTHER;
+                }
+                @Override
+                public Tag unescapedVariable(String name) {
+                    return OTHER;
+                }
+                @Override
+                public Tag specialCharacter(char c) {
+                    return OTHER;
+                }
+                @Override
+                public Tag text(String s) {
+                    return OTHER;
+                }
+                @Override
+                public Tag endOfFile() {
+                    return END_OF_FILE;
+                }
+            });
+        }
+    }
+}
@@ -29,14 +29,16 @@
  */
 package com.snaphop.staticmustache.apt;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringWriter;
 import javax.annotation.processing.Messager;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic;
+
+import org.eclipse.jdt.annotation.Nullable;
+
 import com.github.sviperll.staticmustache.context.RenderingCodeGenerator;
 import com.github.sviperll.staticmustache.context.TemplateCompilerContext;
 import com.github.sviperll.staticmustache.context.VariableContext;
@@ -48,14 +50,18 @@ import com.snaphop.staticmustache.apt.TemplateCompilerLike.TemplateLoader;
  * @author Victor Nazarov <asviraspossible@gmail.com>
  */
 class CodeWriter {
+    static final String STATIC_OUTPUT = "STATIC_OUTPUT";
+
     private final Messager messager;
     private final SwitchablePrintWriter writer;
     private final RenderingCodeGenerator codeGenerator;
+    private final TemplatePrefetcher templates;
 
-    CodeWriter(Messager messager, SwitchablePrintWriter writer, RenderingCodeGenerator codeGenerator) {
+    CodeWriter(Messager messager, SwitchablePrintWriter writer, RenderingCodeGenerator codeGenerator, TemplatePrefetcher templates) {
         this.messager = messager;
         this.writer = writer;
         this.codeGenerator = codeGenerator;
+        this.templates = templates;
     }
 
     TemplateCompilerContext createTemplateContext(TypeElement element, String rootExpression, VariableContext variableContext) {
@@ -66,15 +72,36 @@ class CodeWriter {
         writer.println(s);
     }
 
-    void compileTemplate(TextFileObject resource, String templateName, TemplateCompilerContext context, TemplateCompilerType templateCompilerType) 
-            throws IOException, ProcessingException {
+    /**
+     * Compiles template into the body of a render method.
+     * <p>
+     * A simple template that does not depend on its data is rendered with
+     * a single append of the {@value #STATIC_OUTPUT} constant
+     * that is declared by the caller.
+     * <p>
+     * Partials included outside of any section are rendered by the classes of shared partials when given.
+     *
+     * @return string literal content of the static output or null if template renders data
+     */
+    @Nullable String compileTemplate(TextFileObject resource, String templateName, TemplateCompilerContext context, TemplateCompilerType templateCompilerType,
+            @Nullable SectionProfiling profiling, @Nullable CompileMetrics metrics, @Nullable CompileBudget budget,
+            SharedPartials.@Nullable Scope sharedPartials) throws IOException, ProcessingException {
         
-        TemplateLoader templateLoader = (name) -> new NamedReader(
-                new InputStreamReader(new BufferedInputStream(resource.openInputStream(name)), resource.charset()), name);
-        
-        try (TemplateCompiler templateCompiler = TemplateCompiler.createCompiler(templateName, templateLoader, writer, context, templateCompilerType)) {
+        TemplateLoader templateLoader = (name) -> templates.load(resource, name);
+        StringWriter body = new StringWriter();
+        String staticOutput;
+        try (SwitchablePrintWriter bodyWriter = SwitchablePrintWriter.createInstance(body);
+                TemplateCompiler templateCompiler = TemplateCompiler.createCompiler(templateName, templateLoader, bodyWriter, context, templateCompilerType, profiling, metrics, budget, sharedPartials)) {
             templateCompiler.run();
+            staticOutput = templateCompilerType == TemplateCompilerType.SIMPLE ? templateCompiler.getStaticText().literalCode() : null;
+        }
+        if (staticOutput != null) {
+            writer.println("            appendStatic(" + context.unescapedWriterExpression() + ", " + STATIC_OUTPUT + ");");
+        }
+        else {
+            writer.print(body.toString());
         }
+        return staticOutput;
         
 //        try(InputStream inputStream = resource.openInputStream(templateName)) {
 //            BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
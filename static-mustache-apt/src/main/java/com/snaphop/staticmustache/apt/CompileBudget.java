@@ -0,0 +1,130 @@
+package com.snaphop.staticmustache.apt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Checks a generated render method against the budgets given as processor options
+ * or on its {@code @GenerateRenderableAdapter}.
+ * <p>
+ * A budget is checked after every template token so the diagnostic points
+ * at the section or text that exceeds it. Violations are collected as warnings unless
+ * {@value GenerateRenderableAdapterProcessor#BUDGET_FAIL_OPTION} is set,
+ * in which case the first violation fails compilation of the adapter.
+ */
+class CompileBudget {
+
+    record Limits(int methodSize, int loopDepth, int staticOutput, boolean fail) {
+
+        static @Nullable Limits of(Map<String, String> options) {
+            int methodSize = parse(options, GenerateRenderableAdapterProcessor.BUDGET_METHOD_SIZE_OPTION);
+            int loopDepth = parse(options, GenerateRenderableAdapterProcessor.BUDGET_LOOP_DEPTH_OPTION);
+            int staticOutput = parse(options, GenerateRenderableAdapterProcessor.BUDGET_STATIC_OUTPUT_OPTION);
+            if (methodSize < 0 && loopDepth < 0 && staticOutput < 0) {
+                return null;
+            }
+            boolean fail = Boolean.parseBoolean(options.get(GenerateRenderableAdapterProcessor.BUDGET_FAIL_OPTION));
+            return new Limits(methodSize, loopDepth, staticOutput, fail);
+        }
+
+        /**
+         * @param defaults limits given as processor options or null
+         * @return limits of an adapter whose own budgets override the defaults unless negative,
+         *         or null when there are no budgets at all
+         */
+        static @Nullable Limits forAdapter(@Nullable Limits defaults, int methodSize, int loopDepth, int staticOutput) {
+            Limits base = defaults == null ? new Limits(-1, -1, -1, false) : defaults;
+            Limits limits = new Limits(methodSize >= 0 ? methodSize : base.methodSize(),
+                    loopDepth >= 0 ? loopDepth : base.loopDepth(),
+                    staticOutput >= 0 ? staticOutput : base.staticOutput(),
+                    base.fail());
+            if (limits.methodSize() < 0 && limits.loopDepth() < 0 && limits.staticOutput() < 0) {
+                return null;
+            }
+            return limits;
+        }
+
+        private static int parse(Map<String, String> options, String name) {
+            String value = options.get(name);
+            if (value == null || value.isBlank()) {
+                return -1;
+            }
+            try {
+                return Integer.parseInt(value.strip());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("-A" + name + " should be an integer but was: " + value, ex);
+            }
+        }
+    }
+
+    record Violation(Position position, String message) {
+    }
+
+    private final Limits limits;
+    private final List<Violation> violations = new ArrayList<>();
+    private int statements;
+    private int loopDepth;
+    private int staticOutput;
+    private boolean methodSizeExceeded;
+    private boolean staticOutputExceeded;
+
+    CompileBudget(Limits limits) {
+        this.limits = limits;
+    }
+
+    List<Violation> violations() {
+        return List.copyOf(violations);
+    }
+
+    void statements(int count) {
+        statements += count;
+    }
+
+    void staticOutput(int length) {
+        staticOutput += length;
+    }
+
+    /**
+     * Called after every template token with the position of that token.
+     */
+    void check(Position position) throws ProcessingException {
+        int estimate = CompileMetrics.estimatedBytecode(statements);
+        if (limits.methodSize() >= 0 && ! methodSizeExceeded && estimate > limits.methodSize()) {
+            methodSizeExceeded = true;
+            violation(position, "Generated render method exceeds the method size budget: about "
+                    + estimate + " bytes of bytecode, budget is " + limits.methodSize());
+        }
+        if (limits.staticOutput() >= 0 && ! staticOutputExceeded && staticOutput > limits.staticOutput()) {
+            staticOutputExceeded = true;
+            violation(position, "Template exceeds the static output budget: "
+                    + staticOutput + " characters of static text, budget is " + limits.staticOutput());
+        }
+    }
+
+    void beginSection(boolean loop, String name, Position position) throws ProcessingException {
+        if (! loop) {
+            return;
+        }
+        loopDepth++;
+        if (limits.loopDepth() >= 0 && loopDepth > limits.loopDepth()) {
+            violation(position, "Section " + name + " is nested " + loopDepth
+                    + " loops deep, loop depth budget is " + limits.loopDepth());
+        }
+    }
+
+    void endSection(boolean loop) {
+        if (loop) {
+            loopDepth--;
+        }
+    }
+
+    private void violation(Position position, String message) throws ProcessingException {
+        if (limits.fail()) {
+            throw new ProcessingException(position, message);
+        }
+        violations.add(new Violation(position, message));
+    }
+}
@@ -0,0 +1,153 @@
+package com.snaphop.staticmustache.apt;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compile time spent on one generated adapter, collected when
+ * {@value GenerateRenderableAdapterProcessor#METRICS_OPTION} or
+ * {@value GenerateRenderableAdapterProcessor#METRICS_REPORT_OPTION} is set.
+ */
+class CompileMetrics {
+    /*
+     * Average bytecode of a generated statement: loading the writer field,
+     * a constant or getter chain, an interface call and a pop.
+     */
+    static final int ESTIMATED_BYTES_PER_STATEMENT = 12;
+
+    private final String adapterName;
+    private final String templateName;
+    private final long start = System.nanoTime();
+    private long loadNanos;
+    private long tokenizeNanos;
+    private long resolveNanos;
+    private long emitNanos;
+    private long totalNanos;
+    private long sourceLength;
+    private int statements;
+    private final Map<String, Integer> renderMethodStatements = new LinkedHashMap<>();
+
+    CompileMetrics(String adapterName, String templateName) {
+        this.adapterName = adapterName;
+        this.templateName = templateName;
+    }
+
+    String adapterName() {
+        return adapterName;
+    }
+
+    long totalNanos() {
+        return totalNanos;
+    }
+
+    void template(TokenizedTemplate template) {
+        loadNanos += template.loadNanos();
+        tokenizeNanos += template.tokenizeNanos();
+    }
+
+    void resolved(long startNanos) {
+        resolveNanos += System.nanoTime() - startNanos;
+    }
+
+    void emitted(long startNanos, long length) {
+        emitNanos += System.nanoTime() - startNanos;
+        sourceLength = length;
+    }
+
+    void finished() {
+        totalNanos = System.nanoTime() - start;
+    }
+
+    void statements(int count) {
+        statements += count;
+    }
+
+    /**
+     * Closes the render method of the renderer class that was compiled last.
+     */
+    void renderMethod(String rendererClassName) {
+        renderMethodStatements.put(rendererClassName, statements);
+        statements = 0;
+    }
+
+    int currentStatements() {
+        return statements;
+    }
+
+    static int estimatedBytecode(int statements) {
+        return statements * ESTIMATED_BYTES_PER_STATEMENT;
+    }
+
+    String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%s (%s): total %.1f ms, load %.1f ms, tokenize %.1f ms, resolve %.1f ms, emit %.1f ms, source %d chars",
+                adapterName, templateName, millis(totalNanos), millis(loadNanos), millis(tokenizeNanos),
+                millis(resolveNanos), millis(emitNanos), sourceLength));
+        for (var e : renderMethodStatements.entrySet()) {
+            sb.append(String.format(Locale.ROOT, ", %s.render ~%d bytes", e.getKey(), estimatedBytecode(e.getValue())));
+        }
+        return sb.toString();
+    }
+
+    String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        sb.append("\"adapter\": ").append(quote(adapterName)).append(", ");
+        sb.append("\"template\": ").append(quote(templateName)).append(", ");
+        sb.append("\"totalNanos\": ").append(totalNanos).append(", ");
+        sb.append("\"loadNanos\": ").append(loadNanos).append(", ");
+        sb.append("\"tokenizeNanos\": ").append(tokenizeNanos).append(", ");
+        sb.append("\"resolveNanos\": ").append(resolveNanos).append(", ");
+        sb.append("\"emitNanos\": ").append(emitNanos).append(", ");
+        sb.append("\"sourceLength\": ").append(sourceLength).append(", ");
+        sb.append("\"renderMethods\": [");
+        int i = 0;
+        for (var e : renderMethodStatements.entrySet()) {
+            if (i++ > 0) {
+                sb.append(", ");
+            }
+            sb.append("{\"class\": ").append(quote(e.getKey()))
+                    .append(", \"statements\": ").append(e.getValue())
+                    .append(", \"estimatedBytecode\": ").append(estimatedBytecode(e.getValue()))
+                    .append("}");
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    static String toJson(List<CompileMetrics> metrics) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        int i = 0;
+        for (var m : metrics) {
+            sb.append(i++ > 0 ? ",\n  " : "\n  ").append(m.toJson());
+        }
+        sb.append("\n]\n");
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
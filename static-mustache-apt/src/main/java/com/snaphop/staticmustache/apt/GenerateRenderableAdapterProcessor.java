@@ -36,7 +36,11 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -47,6 +51,7 @@ import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Processor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
@@ -60,6 +65,7 @@ import javax.lang.model.type.TypeMirror;
 import javax.tools.Diagnostic;
 import javax.tools.JavaFileObject;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.kohsuke.MetaInfServices;
 
 import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
@@ -72,6 +78,7 @@ import com.github.sviperll.staticmustache.meta.ElementMessage;
 import com.github.sviperll.staticmustache.meta.ElementMessager;
 import com.github.sviperll.staticmustache.text.LayoutFunction;
 import com.github.sviperll.staticmustache.text.Layoutable;
+import com.github.sviperll.staticmustache.text.RenderBatch;
 import com.github.sviperll.staticmustache.text.RenderFunction;
 import com.github.sviperll.staticmustache.text.Renderable;
 import com.github.sviperll.staticmustache.text.RendererDefinition;
@@ -80,18 +87,67 @@ import com.snaphop.staticmustache.apt.TemplateCompiler.TemplateCompilerType;
 
 @MetaInfServices(value=Processor.class)
 @SupportedAnnotationTypes("*")
+@SupportedOptions({
+    GenerateRenderableAdapterProcessor.PROFILE_OPTION,
+    GenerateRenderableAdapterProcessor.METRICS_OPTION,
+    GenerateRenderableAdapterProcessor.METRICS_REPORT_OPTION,
+    GenerateRenderableAdapterProcessor.BUDGET_METHOD_SIZE_OPTION,
+    GenerateRenderableAdapterProcessor.BUDGET_LOOP_DEPTH_OPTION,
+    GenerateRenderableAdapterProcessor.BUDGET_STATIC_OUTPUT_OPTION,
+    GenerateRenderableAdapterProcessor.BUDGET_FAIL_OPTION})
 public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
 	
+    /**
+     * Generates code that records per-section timings into
+     * {@link com.github.sviperll.staticmustache.spi.SectionProfile}.
+     */
+    static final String PROFILE_OPTION = "staticmustache.profile";
+
+    /**
+     * Prints compile time spent on every adapter as a {@code NOTE}, slowest first.
+     */
+    static final String METRICS_OPTION = "staticmustache.metrics";
+
+    /**
+     * Path of a JSON file to write compile metrics of every adapter to.
+     */
+    static final String METRICS_REPORT_OPTION = "staticmustache.metrics.report";
+
+    /**
+     * Maximum estimated bytecode size of a generated render method.
+     */
+    static final String BUDGET_METHOD_SIZE_OPTION = "staticmustache.budget.methodSize";
+
+    /**
+     * Maximum number of nested collection sections.
+     */
+    static final String BUDGET_LOOP_DEPTH_OPTION = "staticmustache.budget.loopDepth";
+
+    /**
+     * Maximum number of characters of static text in a template including its partials.
+     */
+    static final String BUDGET_STATIC_OUTPUT_OPTION = "staticmustache.budget.staticOutput";
+
+    /**
+     * Report exceeded budgets as errors instead of warnings.
+     */
+    static final String BUDGET_FAIL_OPTION = "staticmustache.budget.fail";
+	
 	@Override
 	public SourceVersion getSupportedSourceVersion() {
 		return SourceVersion.latest();
 	}
 	
     private static String formatErrorMessage(Position position, String message) {
-        String formatString = "%s:%d: error: %s%n%s%n%s%nsymbol: mustache directive%nlocation: mustache template";
+        return formatMessage("error", position, message);
+    }
+
+    private static String formatMessage(String kind, Position position, String message) {
+        String formatString = "%s:%d: %s: %s%n%s%n%s%nsymbol: mustache directive%nlocation: mustache template";
         Object[] fields = new Object[] {
             position.fileName(),
             position.row(),
+            kind,
             message,
             position.currentLine(),
             columnPositioningString(position.col()),
@@ -109,10 +165,86 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
 
     private final List<ElementMessage> errors = new ArrayList<ElementMessage>();
 
+    private final List<CompileMetrics> metrics = new ArrayList<>();
+
+    private TemplatePrefetcher templates = new TemplatePrefetcher();
+
+    /*
+     * Shared partials are generated once per compilation, across rounds.
+     */
+    private @Nullable SharedPartials sharedPartials;
+
+    private boolean budgetOptionsParsed;
+
+    private CompileBudget.@Nullable Limits budgetLimits;
+
+    private boolean isCollectingMetrics() {
+        return Boolean.parseBoolean(processingEnv.getOptions().get(METRICS_OPTION))
+                || processingEnv.getOptions().get(METRICS_REPORT_OPTION) != null;
+    }
+
+    private void reportMetrics() {
+        if (metrics.isEmpty()) {
+            return;
+        }
+        List<CompileMetrics> sorted = new ArrayList<>(metrics);
+        sorted.sort(Comparator.comparingLong(CompileMetrics::totalNanos).reversed());
+        if (Boolean.parseBoolean(processingEnv.getOptions().get(METRICS_OPTION))) {
+            StringBuilder sb = new StringBuilder("static-mustache compile metrics, slowest first:");
+            for (var m : sorted) {
+                sb.append("\n  ").append(m.summary());
+            }
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, sb.toString());
+        }
+        String report = processingEnv.getOptions().get(METRICS_REPORT_OPTION);
+        if (report != null) {
+            try {
+                Path path = Path.of(report);
+                Path parent = path.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Files.writeString(path, CompileMetrics.toJson(sorted), StandardCharsets.UTF_8);
+            } catch (IOException | RuntimeException ex) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Unable to write " + METRICS_REPORT_OPTION + " " + report + ": " + ex);
+            }
+        }
+    }
+
+    private SharedPartials sharedPartials() {
+        var partials = sharedPartials;
+        if (partials == null) {
+            partials = new SharedPartials(processingEnv);
+            sharedPartials = partials;
+        }
+        return partials;
+    }
+
+    /*
+     * Budget options are parsed once, so a bad value is reported once instead of for every adapter.
+     */
+    private CompileBudget.@Nullable Limits budgetLimits() {
+        if (! budgetOptionsParsed) {
+            budgetOptionsParsed = true;
+            try {
+                budgetLimits = CompileBudget.Limits.of(processingEnv.getOptions());
+            } catch (IllegalArgumentException ex) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, ex.getMessage());
+            }
+        }
+        return budgetLimits;
+    }
+
+    private boolean isProfiling() {
+        return Boolean.parseBoolean(processingEnv.getOptions().get(PROFILE_OPTION));
+    }
+
     @Override
     public boolean process(Set<? extends TypeElement> processEnnotations,
                            RoundEnvironment roundEnv) {
         if (roundEnv.processingOver()) {
+            reportMetrics();
             for (ElementMessage error: errors) {
                 TypeElement element = processingEnv.getElementUtils().getTypeElement(error.qualifiedElementName());
                 processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, error.message(), element);
@@ -122,6 +254,7 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
              * Lets just bind the damn utils so that we do not have to pass them around everywhere
              */
             JavaLanguageModel.createInstance(processingEnv.getTypeUtils(), processingEnv.getElementUtils());
+            List<Directive> adapters = new ArrayList<>();
             Element generateRenderableAdapterElement = processingEnv.getElementUtils().getTypeElement(GenerateRenderableAdapter.class.getName());
             for (Element element: roundEnv.getElementsAnnotatedWith(GenerateRenderableAdapter.class)) {
                 TypeElement classElement = (TypeElement)element;
@@ -131,7 +264,7 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
                     if (processingEnv.getTypeUtils().isSubtype(annotationMirror.getAnnotationType(), generateRenderableAdapterElement.asType()))
                         directive = annotationMirror;
                 }
-                writeRenderableAdapterClass(classElement, directive);
+                adapters.add(new Directive(classElement, directive));
             }
             Element generateRenderableAdaptersElement = processingEnv.getElementUtils().getTypeElement(GenerateRenderableAdapters.class.getName());
             for (Element element: roundEnv.getElementsAnnotatedWith(GenerateRenderableAdapters.class)) {
@@ -146,16 +279,64 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
                                 List<? extends AnnotationValue> directives = (List<? extends AnnotationValue>)entry.getValue().getValue();
                                 for (AnnotationValue directiveValue: directives) {
                                     AnnotationMirror directive = (AnnotationMirror)directiveValue.getValue();
-                                    writeRenderableAdapterClass(classElement, directive);
+                                    adapters.add(new Directive(classElement, directive));
                                 }
                             }
                         }
                     }
                 }
             }
+            /*
+             * Templates are read and tokenized on the fork-join pool while
+             * the adapters are generated one by one on this thread.
+             */
+            templates = new TemplatePrefetcher();
+            for (Directive d : adapters) {
+                prefetchTemplate(d.element(), d.mirror());
+            }
+            templates.prefetchPartials();
+            for (Directive d : adapters) {
+                writeRenderableAdapterClass(d.element(), d.mirror());
+            }
         }
         return true;
     }
+
+    private record Directive(TypeElement element, AnnotationMirror mirror) {
+    }
+
+    private void prefetchTemplate(TypeElement element, AnnotationMirror directiveMirror) {
+        String templatePath = null;
+        String directiveCharset = null;
+        Map<? extends ExecutableElement, ? extends AnnotationValue> annotationValues = processingEnv.getElementUtils().getElementValuesWithDefaults(directiveMirror);
+        for (Entry<? extends ExecutableElement, ? extends AnnotationValue> entry: annotationValues.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("template")) {
+                templatePath = (String)entry.getValue().getValue();
+            } else if (entry.getKey().getSimpleName().contentEquals("charset")) {
+                directiveCharset = (String)entry.getValue().getValue();
+            }
+        }
+        if (templatePath == null || directiveCharset == null) {
+            return;
+        }
+        try {
+            templates.prefetch(new TextFileObject(processingEnv, resolveCharset(directiveCharset)), resolveTemplatePath(element, templatePath));
+        } catch (RuntimeException ex) {
+            // reported when the adapter is generated
+        }
+    }
+
+    private static Charset resolveCharset(String directiveCharset) {
+        return directiveCharset.equals(":default") ? Charset.defaultCharset() : Charset.forName(directiveCharset);
+    }
+
+    private String resolveTemplatePath(TypeElement element, String templatePath) {
+        String basePath = resolveBasePath(element);
+        if (! templatePath.startsWith("/")) {
+            return basePath + templatePath;
+        }
+        return templatePath;
+    }
     
     
     private String resolveBasePath(TypeElement element) {
@@ -205,12 +386,20 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
         Method templateMethod;
         Method charsetMethod;
         Method isLayoutMethod;
+        Method cachedMethod;
+        Method methodSizeBudgetMethod;
+        Method loopDepthBudgetMethod;
+        Method staticOutputBudgetMethod;
         try {
             templateFormatMethod = GenerateRenderableAdapter.class.getDeclaredMethod("templateFormat");
             adapterNameMethod = GenerateRenderableAdapter.class.getDeclaredMethod("adapterName");
             templateMethod = GenerateRenderableAdapter.class.getDeclaredMethod("template");
             charsetMethod = GenerateRenderableAdapter.class.getDeclaredMethod("charset");
             isLayoutMethod = GenerateRenderableAdapter.class.getDeclaredMethod("isLayout");
+            cachedMethod = GenerateRenderableAdapter.class.getDeclaredMethod("cached");
+            methodSizeBudgetMethod = GenerateRenderableAdapter.class.getDeclaredMethod("methodSizeBudget");
+            loopDepthBudgetMethod = GenerateRenderableAdapter.class.getDeclaredMethod("loopDepthBudget");
+            staticOutputBudgetMethod = GenerateRenderableAdapter.class.getDeclaredMethod("staticOutputBudget");
         } catch (NoSuchMethodException ex) {
             throw new RuntimeException(ex);
         } catch (SecurityException ex) {
@@ -222,6 +411,10 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
         String directiveCharset = null;
         TypeElement templateFormatElement = null;
         Boolean isLayout = null;
+        Boolean cached = null;
+        int methodSizeBudget = -1;
+        int loopDepthBudget = -1;
+        int staticOutputBudget = -1;
         Map<? extends ExecutableElement, ? extends AnnotationValue> annotationValues = processingEnv.getElementUtils().getElementValuesWithDefaults(directiveMirror);
         for (Entry<? extends ExecutableElement, ? extends AnnotationValue> entry: annotationValues.entrySet()) {
             if (entry.getKey().getSimpleName().contentEquals(templateFormatMethod.getName())) {
@@ -239,6 +432,14 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
                 directiveCharset = (String)entry.getValue().getValue();
             } else if (entry.getKey().getSimpleName().contentEquals(isLayoutMethod.getName())) {
                 isLayout = (Boolean)entry.getValue().getValue();
+            } else if (entry.getKey().getSimpleName().contentEquals(cachedMethod.getName())) {
+                cached = (Boolean)entry.getValue().getValue();
+            } else if (entry.getKey().getSimpleName().contentEquals(methodSizeBudgetMethod.getName())) {
+                methodSizeBudget = (Integer)entry.getValue().getValue();
+            } else if (entry.getKey().getSimpleName().contentEquals(loopDepthBudgetMethod.getName())) {
+                loopDepthBudget = (Integer)entry.getValue().getValue();
+            } else if (entry.getKey().getSimpleName().contentEquals(staticOutputBudgetMethod.getName())) {
+                staticOutputBudget = (Integer)entry.getValue().getValue();
             }
         }
         if (templateFormatElement == null)
@@ -251,6 +452,8 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
             throw new RuntimeException(templateMethod.getName() + " should always be defined in " + GenerateRenderableAdapter.class.getName() + " annotation");
         if (isLayout == null)
             throw new RuntimeException(isLayoutMethod.getName() + " should always be defined in " + GenerateRenderableAdapter.class.getName() + " annotation");
+        if (cached == null)
+            throw new RuntimeException(cachedMethod.getName() + " should always be defined in " + GenerateRenderableAdapter.class.getName() + " annotation");
         String adapterClassSimpleName;
         if (!directiveAdapterName.equals(":auto"))
             adapterClassSimpleName = directiveAdapterName;
@@ -259,21 +462,23 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
             adapterClassSimpleName = element.getSimpleName().toString() + (isLayout ? "Layoutable" : "Renderer");
 
         }
-        Charset templateCharset = directiveCharset.equals(":default") ? Charset.defaultCharset() : Charset.forName(directiveCharset);
+        Charset templateCharset = resolveCharset(directiveCharset);
         try {
             TextFormat templateFormatAnnotation = templateFormatElement.getAnnotation(TextFormat.class);
             if (templateFormatAnnotation == null) {
                 throw new DeclarationException(templateFormatElement.getQualifiedName() + " class is used as a template format, but not marked with " + TextFormat.class.getName() + " annotation");
             }
+            if (isLayout && cached) {
+                throw new DeclarationException("Layout output can't be cached: " + element.getQualifiedName());
+            }
             if (!element.getTypeParameters().isEmpty()) {
                 throw new DeclarationException("Can't generate renderable adapter for class with type variables: " + element.getQualifiedName());
             }
             StringWriter stringWriter = new StringWriter();
             
-            String basePath = resolveBasePath(element);
-            if (! templatePath.startsWith("/")) {
-                templatePath = basePath + templatePath;
-            }
+            templatePath = resolveTemplatePath(element, templatePath);
+            CompileMetrics compileMetrics = isCollectingMetrics() ? new CompileMetrics(adapterClassSimpleName, templatePath) : null;
+            CompileBudget.@Nullable Limits adapterBudget = CompileBudget.Limits.forAdapter(budgetLimits(), methodSizeBudget, loopDepthBudget, staticOutputBudget);
             List<String> ifaces = resolveBaseInterface(element);
             FormatterTypes formatterTypes = getFormatterTypes(element);
             
@@ -284,14 +489,17 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
                 TextFileObject templateResource = new TextFileObject(processingEnv, templateCharset);
                 JavaLanguageModel javaModel = JavaLanguageModel.createInstance(processingEnv.getTypeUtils(), processingEnv.getElementUtils());
                 RenderingCodeGenerator codeGenerator = RenderingCodeGenerator.createInstance(javaModel, formatterTypes, templateFormatElement);
-                CodeWriter codeWriter = new CodeWriter(new ElementMessager(processingEnv.getMessager(), element), switchablePrintWriter, codeGenerator);
-                ClassWriter writer = new ClassWriter(codeWriter, element, templateResource, templatePath);
+                ElementMessager messager = new ElementMessager(processingEnv.getMessager(), element);
+                CodeWriter codeWriter = new CodeWriter(messager, switchablePrintWriter, codeGenerator, templates);
+                SharedPartials.Scope partials = sharedPartials().scope(element, templateFormatElement, templateResource, messager, codeGenerator, templates);
+                ClassWriter writer = new ClassWriter(codeWriter, element, templateResource, templatePath, compileMetrics, adapterBudget, partials);
 
-                writer.writeRenderableAdapterClass(adapterClassSimpleName, isLayout, templateFormatElement, ifaces);
+                writer.writeRenderableAdapterClass(adapterClassSimpleName, isLayout, cached, templateFormatElement, ifaces);
             }
             PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(element);
             String packageName = packageElement.getQualifiedName().toString();
             String adapterClassName = packageName + "." + adapterClassSimpleName;
+            long emitStart = System.nanoTime();
             JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(adapterClassName, element);
             OutputStream stream = sourceFile.openOutputStream();
             try {
@@ -308,6 +516,11 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
                     processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, Throwables.render(ex), element);
                 }
             }
+            if (compileMetrics != null) {
+                compileMetrics.emitted(emitStart, stringWriter.getBuffer().length());
+                compileMetrics.finished();
+                metrics.add(compileMetrics);
+            }
         } catch (ProcessingException ex) {
             String errorMessage = formatErrorMessage(ex.position(), ex.getMessage());
             errors.add(ElementMessage.of(element, errorMessage));
@@ -325,18 +538,25 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
         private final TypeElement element;
         private final TextFileObject templateLoader;
         private final String templateName;
-        ClassWriter(CodeWriter compilerManager, TypeElement element, TextFileObject templateLoader, String templateName) {
+        private final @Nullable CompileMetrics metrics;
+        private final CompileBudget.@Nullable Limits adapterBudget;
+        private final SharedPartials.Scope sharedPartials;
+        ClassWriter(CodeWriter compilerManager, TypeElement element, TextFileObject templateLoader, String templateName,
+                @Nullable CompileMetrics metrics, CompileBudget.@Nullable Limits adapterBudget, SharedPartials.Scope sharedPartials) {
             this.codeWriter = compilerManager;
             this.element = element;
             this.templateName = templateName;
             this.templateLoader = templateLoader;
+            this.metrics = metrics;
+            this.adapterBudget = adapterBudget;
+            this.sharedPartials = sharedPartials;
         }
 
         void println(String s) {
             codeWriter.println(s);
         }
 
-        private void writeRenderableAdapterClass(String adapterClassSimpleName, Boolean isLayout,
+        private void writeRenderableAdapterClass(String adapterClassSimpleName, Boolean isLayout, boolean cached,
                        TypeElement templateFormatElement, List<String> ifaces) throws IOException, ProcessingException {
             String className = element.getQualifiedName().toString();
             PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(element);
@@ -380,17 +600,28 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
                 println("    public static " + RenderFunction.class.getName() + " of(" + className + " data) {");
                 println("        return new " + adapterClassSimpleName + "(data);");
                 println("    }");
+                if (cached) {
+                    println("    @Override");
+                    println("    protected Object getCacheKey() {");
+                    println("        return this.data;");
+                    println("    }");
+                }
                 
                 String adapterRendererClassSimpleName = adapterClassSimpleName + "Renderer";
                 String adapterRendererClassName = adapterClassSimpleName + "." + adapterRendererClassSimpleName;
 
                 println("    @Override");
                 println("    protected " + RendererDefinition.class.getName() + " createRenderer(" + Appendable.class.getName() + " unescapedWriter) {");
+                printProfilingWrapper();
                 println("        " + Appendable.class.getName() + " writer = " + templateFormatElement.getQualifiedName() + "." + templateFormatAnnotation.createEscapingAppendableMethodName() + "(unescapedWriter);");
                 println("        return " + RendererDefinition.class.getName() + ".of(new " + adapterRendererClassName + "(data, writer, unescapedWriter));");
                 println("    }");
+                writeBatchMethods(adapterClassSimpleName, adapterRendererClassName, cached, templateFormatElement);
 
-                writeRendererDefinitionClass(adapterRendererClassSimpleName, TemplateCompilerType.SIMPLE);
+                String staticOutput = writeRendererDefinitionClass(adapterRendererClassSimpleName, TemplateCompilerType.SIMPLE);
+                if (staticOutput != null) {
+                    writeStaticOutput(staticOutput);
+                }
             } else {
             	
                 println("    public static " + LayoutFunction.class.getName() + " of(" + className + " data) {");
@@ -403,11 +634,13 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
                 String adapterFooterRendererClassName = adapterClassSimpleName + "." + adapterFooterRendererClassSimpleName;
                 println("    @Override");
                 println("    public " + RendererDefinition.class.getName() + " createHeaderRenderer(" + Appendable.class.getName() + " unescapedWriter) {");
+                printProfilingWrapper();
                 println("        " + Appendable.class.getName() + " writer = " + templateFormatElement.getQualifiedName() + "." + templateFormatAnnotation.createEscapingAppendableMethodName() + "(unescapedWriter);");
                 println("        return " + RendererDefinition.class.getName() + ".of(new " + adapterHeaderRendererClassName + "(data, writer, unescapedWriter));");
                 println("    }");
                 println("    @Override");
                 println("    public " + RendererDefinition.class.getName() + " createFooterRenderer(" + Appendable.class.getName() + " unescapedWriter) {");
+                printProfilingWrapper();
                 println("        " + Appendable.class.getName() + " writer = " + templateFormatElement.getQualifiedName() + "." + templateFormatAnnotation.createEscapingAppendableMethodName() + "(unescapedWriter);");
                 println("        return " + RendererDefinition.class.getName() + ".of(new " + adapterFooterRendererClassName + "(data, writer, unescapedWriter));");
                 println("    }");
@@ -418,7 +651,56 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
             println("}");
         }
 
-        private void writeRendererDefinitionClass(String adapterRendererClassSimpleName, TemplateCompilerType templateCompilerType ) throws IOException, ProcessingException {
+        /*
+         * Cached and profiled adapters render every item of a batch through the adapter.
+         */
+        private void writeBatchMethods(String adapterClassSimpleName, String adapterRendererClassName, boolean cached,
+                       TypeElement templateFormatElement) {
+            String className = element.getQualifiedName().toString();
+            String batchType = RenderBatch.class.getName() + "<" + className + ">";
+            String escaper = templateFormatElement.getQualifiedName() + "::"
+                    + templateFormatElement.getAnnotation(TextFormat.class).createEscapingAppendableMethodName();
+            String factory = cached || isProfiling() ? "null" : adapterRendererClassName + "::new";
+            println("    private static final " + batchType + " BATCH = " + RenderBatch.class.getName()
+                    + ".of(TEMPLATE, " + adapterClassSimpleName + "::new, " + escaper + ", " + factory + ");");
+            println("    public static void renderAll(" + Iterable.class.getName() + "<? extends " + className + "> items, "
+                    + Appendable.class.getName() + " unescapedWriter) throws " + IOException.class.getName() + " {");
+            println("        BATCH.renderAll(items, unescapedWriter);");
+            println("    }");
+            println("    public static void renderEach(" + Iterable.class.getName() + "<? extends " + className + "> items, "
+                    + RenderBatch.ItemConsumer.class.getCanonicalName() + "<? super " + className + "> consumer) throws "
+                    + IOException.class.getName() + " {");
+            println("        BATCH.renderEach(items, consumer);");
+            println("    }");
+        }
+
+        private void printProfilingWrapper() {
+            if (isProfiling()) {
+                println("        " + SectionProfiling.wrapWriterCode("unescapedWriter"));
+            }
+        }
+
+        /*
+         * The output of a template that does not depend on its data is
+         * also exposed as characters and UTF-8 bytes so that it can be copied without encoding.
+         */
+        private void writeStaticOutput(String literalCode) {
+            String charset = java.nio.charset.StandardCharsets.class.getName() + ".UTF_8";
+            println("    public static final String " + CodeWriter.STATIC_OUTPUT + " = " + TemplateCompiler.stringLiteral(literalCode).replace("\n", "\n    ") + ";");
+            println("    private static final char[] STATIC_CHARS = " + CodeWriter.STATIC_OUTPUT + ".toCharArray();");
+            println("    private static final byte[] STATIC_UTF8 = " + CodeWriter.STATIC_OUTPUT + ".getBytes(" + charset + ");");
+            println("    public static void writeTo(" + Writer.class.getName() + " writer) throws " + IOException.class.getName() + " {");
+            println("        writer.write(STATIC_CHARS);");
+            println("    }");
+            println("    public static void writeTo(" + OutputStream.class.getName() + " stream) throws " + IOException.class.getName() + " {");
+            println("        stream.write(STATIC_UTF8);");
+            println("    }");
+            println("    public static byte[] staticUtf8() {");
+            println("        return STATIC_UTF8.clone();");
+            println("    }");
+        }
+
+        private @Nullable String writeRendererDefinitionClass(String adapterRendererClassSimpleName, TemplateCompilerType templateCompilerType ) throws IOException, ProcessingException {
             String className = element.getQualifiedName().toString();
             println("    private static class " + adapterRendererClassSimpleName + " implements " + RendererDefinition.class.getName() + " {");
 
@@ -438,9 +720,31 @@ public class GenerateRenderableAdapterProcessor extends AbstractProcessor {
             println("        }");
             println("        @Override");
             println("        public void render() throws " + IOException.class.getName() + " {");
-            codeWriter.compileTemplate(templateLoader, templateName, context, templateCompilerType);
+            SectionProfiling profiling = isProfiling() ? new SectionProfiling(templateName) : null;
+            CompileBudget budget = adapterBudget == null ? null : new CompileBudget(adapterBudget);
+            /*
+             * Profiled renderers time the sections of their partials, and metrics and budgets
+             * count the loops, statements and static text of their partials, so they inline them.
+             */
+            var partials = profiling == null && metrics == null && budget == null ? sharedPartials : null;
+            String staticOutput = codeWriter.compileTemplate(templateLoader, templateName, context, templateCompilerType, profiling, metrics, budget, partials);
+            if (budget != null) {
+                for (var violation : budget.violations()) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                            formatMessage("warning", violation.position(), violation.message()), element);
+                }
+            }
+            if (metrics != null) {
+                metrics.renderMethod(adapterRendererClassSimpleName);
+            }
             println("        }");
+            if (profiling != null) {
+                for (String line : profiling.declarationCode().split("\n")) {
+                    println("        " + line);
+                }
+            }
             println("    }");
+            return staticOutput;
         }
     }
 }
@@ -0,0 +1,83 @@
+package com.snaphop.staticmustache.apt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.sviperll.staticmustache.spi.SectionProfile;
+
+/**
+ * Allocates {@link SectionProfile} slots while a renderer is compiled with
+ * {@value GenerateRenderableAdapterProcessor#PROFILE_OPTION} enabled.
+ */
+class SectionProfiling {
+    static final String FIELD_NAME = "PROFILE";
+
+    private final String templateName;
+    private final List<String> registrations = new ArrayList<>();
+
+    SectionProfiling(String templateName) {
+        this.templateName = templateName;
+    }
+
+    int register(String label, Position position) {
+        registrations.add(SectionProfile.class.getName() + ".register("
+                + quote(templateName) + ", "
+                + quote(label) + ", "
+                + quote(position.fileName()) + ", "
+                + position.row() + ", "
+                + column(position) + ")");
+        return registrations.size() - 1;
+    }
+
+    /*
+     * Tokens are positioned just after their closing braces,
+     * profiles point at the opening braces of the tag instead.
+     */
+    static int column(Position position) {
+        String line = position.currentLine();
+        int end = Math.min(position.col() - 2, line.length() - 1);
+        int start = end < 1 ? -1 : line.lastIndexOf("{{", end - 1);
+        if (start < 0) {
+            return position.col();
+        }
+        while (start > 0 && line.charAt(start - 1) == '{') {
+            start--;
+        }
+        return start + 1;
+    }
+
+    String beginCode(int id, String unescapedWriter) {
+        return "long profileStart" + id + " = System.nanoTime(); "
+                + "long profileLength" + id + " = " + SectionProfile.class.getName() + ".length(" + unescapedWriter + "); "
+                + "long profileIterations" + id + " = 0;";
+    }
+
+    String iterationCode(int id) {
+        return "profileIterations" + id + "++;";
+    }
+
+    String endCode(int id, String unescapedWriter) {
+        return FIELD_NAME + "[" + id + "].record(System.nanoTime() - profileStart" + id + ", "
+                + "profileIterations" + id + ", "
+                + SectionProfile.class.getName() + ".length(" + unescapedWriter + ") - profileLength" + id + ");";
+    }
+
+    static String wrapWriterCode(String unescapedWriter) {
+        return unescapedWriter + " = " + SectionProfile.class.getName() + ".counting(" + unescapedWriter + ");";
+    }
+
+    String declarationCode() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("private static final ").append(SectionProfile.class.getName()).append("[] ")
+                .append(FIELD_NAME).append(" = {");
+        for (String registration : registrations) {
+            sb.append("\n    ").append(registration).append(",");
+        }
+        sb.append("\n};");
+        return sb.toString();
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,160 @@
+package com.snaphop.staticmustache.apt;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.TypeElement;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.github.sviperll.staticmustache.context.RenderingCodeGenerator;
+import com.github.sviperll.staticmustache.context.TemplateCompilerContext;
+import com.github.sviperll.staticmustache.context.VariableContext;
+import com.github.sviperll.staticmustache.text.RendererDefinition;
+import com.snaphop.staticmustache.apt.TemplateCompiler.TemplateCompilerType;
+
+/**
+ * Partials that are included outside of any section.
+ * <p>
+ * Such a partial renders nothing but the data of the including template, so it is compiled once
+ * per data type, format and charset into a class of its own that every including renderer calls
+ * instead of inlining the partial into each of them.
+ * Partials that don't render data are still inlined as static text.
+ * Renderers compiled with profiling, metrics or budgets inline all of their partials.
+ */
+final class SharedPartials {
+
+    private final ProcessingEnvironment env;
+    private final Map<Key, Shared> partials = new HashMap<>();
+    private final Set<String> classNames = new HashSet<>();
+
+    SharedPartials(ProcessingEnvironment env) {
+        this.env = env;
+    }
+
+    /**
+     * @return partials shared by the renderers of the given data type and format
+     */
+    Scope scope(TypeElement element, TypeElement format, TextFileObject resource, Messager messager,
+            RenderingCodeGenerator codeGenerator, TemplatePrefetcher templates) {
+        return new Scope(element, format, resource, messager, codeGenerator, templates);
+    }
+
+    /**
+     * @param className simple name of the class that renders the partial or null when the partial doesn't render data
+     * @param staticText string literal content of the output of a partial that doesn't render data, otherwise null
+     */
+    record Shared(@Nullable String className, @Nullable String staticText) {
+    }
+
+    private record Key(String templateName, Charset charset, String dataType, String format) {
+    }
+
+    final class Scope {
+        private final TypeElement element;
+        private final TypeElement format;
+        private final TextFileObject resource;
+        private final Messager messager;
+        private final RenderingCodeGenerator codeGenerator;
+        private final TemplatePrefetcher templates;
+
+        private Scope(TypeElement element, TypeElement format, TextFileObject resource, Messager messager,
+                RenderingCodeGenerator codeGenerator, TemplatePrefetcher templates) {
+            this.element = element;
+            this.format = format;
+            this.resource = resource;
+            this.messager = messager;
+            this.codeGenerator = codeGenerator;
+            this.templates = templates;
+        }
+
+        /**
+         * Compiles the partial unless it was compiled for the same data type and format before.
+         */
+        Shared share(String templateName) throws ProcessingException, IOException {
+            Key key = new Key(templateName, resource.charset(), element.getQualifiedName().toString(),
+                    format.getQualifiedName().toString());
+            Shared shared = partials.get(key);
+            if (shared == null) {
+                shared = compile(templateName);
+                partials.put(key, shared);
+            }
+            return shared;
+        }
+
+        private Shared compile(String templateName) throws ProcessingException, IOException {
+            String packageName = env.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+            String className = className(packageName, templateName);
+            classNames.add(packageName + "." + className);
+            String dataType = element.getQualifiedName().toString();
+            String appendable = Appendable.class.getName();
+            String ioException = IOException.class.getName();
+            StringWriter source = new StringWriter();
+            String staticText;
+            try (SwitchablePrintWriter writer = SwitchablePrintWriter.createInstance(source)) {
+                CodeWriter codeWriter = new CodeWriter(messager, writer, codeGenerator, templates);
+                VariableContext variables = VariableContext.createDefaultContext();
+                String dataName = variables.introduceNewNameLike("data");
+                TemplateCompilerContext context = codeWriter.createTemplateContext(element, dataName, variables);
+                writer.println("package " + packageName + ";");
+                writer.println("// @javax.annotation.Generated(\"" + GenerateRenderableAdapterProcessor.class.getName() + "\")");
+                writer.println("final class " + className + " implements " + RendererDefinition.class.getName() + " {");
+                writer.println("    private final " + appendable + " " + variables.unescapedWriter() + ";");
+                writer.println("    private final " + appendable + " " + variables.writer() + ";");
+                writer.println("    private final " + dataType + " " + dataName + ";");
+                writer.println("    private " + className + "(" + dataType + " data, " + appendable + " writer, " + appendable + " unescapedWriter) {");
+                writer.println("        this." + variables.writer() + " = writer;");
+                writer.println("        this." + variables.unescapedWriter() + " = unescapedWriter;");
+                writer.println("        this." + dataName + " = data;");
+                writer.println("    }");
+                writer.println("    static void render(" + dataType + " data, " + appendable + " writer, " + appendable + " unescapedWriter) throws " + ioException + " {");
+                writer.println("        new " + className + "(data, writer, unescapedWriter).render();");
+                writer.println("    }");
+                writer.println("    @Override");
+                writer.println("    public void render() throws " + ioException + " {");
+                staticText = codeWriter.compileTemplate(resource, templateName, context, TemplateCompilerType.SIMPLE, null, null, null, this);
+                writer.println("    }");
+                writer.println("}");
+            }
+            if (staticText != null) {
+                return new Shared(null, staticText);
+            }
+            try (Writer out = env.getFiler().createSourceFile(packageName + "." + className, element).openWriter()) {
+                out.append(source.getBuffer());
+            }
+            return new Shared(className, null);
+        }
+
+        /*
+         * Data type, partial path and format, e.g. ArticleBylineHtmlPartial for byline.mustache
+         */
+        private String className(String packageName, String templateName) {
+            String path = templateName;
+            int extension = path.lastIndexOf('.');
+            if (extension > path.lastIndexOf('/')) {
+                path = path.substring(0, extension);
+            }
+            StringBuilder name = new StringBuilder(element.getSimpleName());
+            for (String word : path.split("[^A-Za-z0-9]+")) {
+                if (! word.isEmpty()) {
+                    name.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                }
+            }
+            name.append(format.getSimpleName()).append("Partial");
+            String base = name.toString();
+            String candidate = base;
+            for (int i = 2; classNames.contains(packageName + "." + candidate); i++) {
+                candidate = base + i;
+            }
+            return candidate;
+        }
+    }
+}
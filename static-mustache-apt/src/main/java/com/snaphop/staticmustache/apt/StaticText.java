@@ -0,0 +1,58 @@
+package com.snaphop.staticmustache.apt;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Collects the text of a template, including its partials, as long as the template does not depend on its data.
+ * <p>
+ * Text is kept in the escaped form used inside Java string literals
+ * so that it can be emitted as a constant as is.
+ */
+class StaticText {
+    private final StringBuilder code = new StringBuilder();
+    private boolean dynamic = false;
+
+    void append(String literalCode) {
+        if (! dynamic) {
+            code.append(literalCode);
+        }
+    }
+
+    void dynamic() {
+        dynamic = true;
+        code.setLength(0);
+    }
+
+    /**
+     * @return string literal content or null when the template renders data
+     */
+    @Nullable String literalCode() {
+        return dynamic ? null : code.toString();
+    }
+
+    /**
+     * Escapes text produced at compile time so that it can be put in a string literal.
+     */
+    static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20 || c == 0x7f) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
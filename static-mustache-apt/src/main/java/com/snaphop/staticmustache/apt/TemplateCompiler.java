@@ -30,13 +30,15 @@
 package com.snaphop.staticmustache.apt;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import com.github.sviperll.staticmustache.context.ContextException;
 import com.github.sviperll.staticmustache.context.TemplateCompilerContext;
 import com.github.sviperll.staticmustache.context.TemplateCompilerContext.ChildType;
-import com.github.sviperll.staticmustache.token.MustacheTokenizer;
 
 /**
  *
@@ -54,43 +56,51 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
             TemplateLoader templateLoader,
             CodeAppendable writer,
             TemplateCompilerContext context,
-            TemplateCompilerType compilerType) throws IOException {
+            TemplateCompilerType compilerType,
+            @Nullable SectionProfiling profiling,
+            @Nullable CompileMetrics metrics,
+            @Nullable CompileBudget budget,
+            SharedPartials.@Nullable Scope sharedPartials) throws IOException {
         
        return switch (compilerType) {
-        case FOOTER -> new FooterTemplateCompiler(templateName, templateLoader, writer, context);
-        case HEADER -> new HeaderTemplateCompiler(templateName, templateLoader, writer, context);
-        case SIMPLE -> new SimpleTemplateCompiler(templateName, templateLoader, writer, context);
+        case FOOTER -> new FooterTemplateCompiler(templateName, templateLoader, writer, context, profiling, metrics, budget);
+        case HEADER -> new HeaderTemplateCompiler(templateName, templateLoader, writer, context, profiling, metrics, budget);
+        case SIMPLE -> new SimpleTemplateCompiler(templateName, templateLoader, writer, context, profiling, metrics, budget, sharedPartials);
         };
     }
 
 
-    private final NamedReader reader;
+    private final String templateName;
     private final boolean expectsYield;
     private TemplateCompilerContext context;
     boolean foundYield = false;
     int depth = 0;
     StringBuilder currentUnescaped = new StringBuilder();
     private final TemplateCompilerLike parent;
-    private @Nullable PartialTemplateCompiler partial;
-    //Map<String,String> blockArgs
+    private final BlockOverrides overrides;
+    private @Nullable Collecting collecting;
+    private final Deque<OpenBlock> openBlocks = new ArrayDeque<>();
+    private final Deque<Integer> profiledSections = new ArrayDeque<>();
 
-    private TemplateCompiler(NamedReader reader, 
+    private TemplateCompiler(String templateName, 
             TemplateCompilerLike parent, 
             TemplateCompilerContext context,
-            boolean expectsYield) {
-        this.reader = reader;
+            boolean expectsYield,
+            BlockOverrides overrides) {
+        this.templateName = templateName;
         this.parent = parent;
         this.context = context;
         this.expectsYield = expectsYield;
+        this.overrides = overrides;
     }
 
     public void run() throws ProcessingException, IOException {
-        TokenProcessor<Character> processor = MustacheTokenizer.createInstance(reader.name(), this);
-        int readResult;
-        while ((readResult = reader.read()) >= 0) {
-            processor.processToken((char)readResult);
+        TokenizedTemplate template = getTemplateLoader().load(templateName);
+        var metrics = getMetrics();
+        if (metrics != null) {
+            metrics.template(template);
         }
-        processor.processToken(TokenProcessor.EOF);
+        template.replay(this);
         getWriter().println();
     }
     
@@ -100,21 +110,46 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
     }
     
     @Override
-    public PartialTemplateCompiler createPartialCompiler(String templateName) throws IOException {
-        var reader = getTemplateLoader().open(templateName);
+    public PartialTemplateCompiler createPartialCompiler(String templateName, BlockOverrides overrides) throws IOException {
         TemplateCompilerContext context = this.context.createForPartial();
-        var c = new TemplateCompiler(reader, this, context, expectsYield);
+        var c = new TemplateCompiler(templateName, this, context, expectsYield, overrides);
         return new PartialTemplateCompiler(c);
     }
 
     @Override
     public void processToken(PositionedToken<MustacheToken> positionedToken) throws ProcessingException {
+        var c = collecting;
+        if (c != null) {
+            if (c.collector().add(positionedToken)) {
+                collecting = null;
+                c.action().collected(c.collector().tokens(), positionedToken.position());
+            }
+            return;
+        }
         positionedToken.innerToken().accept(new CompilingTokenProcessor(positionedToken.position()));
+        var budget = getBudget();
+        if (budget != null) {
+            budget.check(positionedToken.position());
+        }
     }
     
     @Override
     public void close() throws IOException {
-        reader.close();
+        // templates are read fully by the TemplateLoader
+    }
+
+    /*
+     * Tokens of a parent tag or of an overridden block are collected up to the closing tag
+     * instead of being compiled as they come.
+     */
+    private interface CollectedAction {
+        void collected(List<PositionedToken<MustacheToken>> tokens, Position end) throws ProcessingException;
+    }
+
+    private record Collecting(BlockOverrides.TokenCollector collector, CollectedAction action) {
+    }
+
+    private record OpenBlock(String name, TemplateCompilerContext context) {
     }
 
     private class CompilingTokenProcessor implements MustacheToken.Visitor<@Nullable Void, ProcessingException> {
@@ -136,13 +171,22 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
         public @Nullable Void beginSection(String name) throws ProcessingException {
             flushUnescaped();
             try {
-                context = context.getChild(name, ChildType.SECTION);
+                context = child(name, ChildType.SECTION);
+                var budget = getBudget();
+                if (budget != null && ! getWriter().suppressesOutput()) {
+                    budget.beginSection(context.isLoop(), name, position);
+                }
+                dynamic();
                 println();
                 print("// section: " + context.currentEnclosedContextName());
                 println();
+                int profileId = beginSectionProfile("{{#" + name + "}}");
                 print(context.beginSectionRenderingCode());
                 println();
                 depth++;
+                if (! context.isLambdaBody()) {
+                    profileIteration(profileId);
+                }
                 
             } catch (ContextException ex) {
                 throw new ProcessingException(position, ex);
@@ -154,13 +198,16 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
         public @Nullable Void beginInvertedSection(String name) throws ProcessingException {
             flushUnescaped();
             try {
-                context = context.getChild(name, ChildType.INVERTED);
+                context = child(name, ChildType.INVERTED);
+                dynamic();
                 println();
                 print("// inverted section: " + context.currentEnclosedContextName());
                 println();
+                int profileId = beginSectionProfile("{{^" + name + "}}");
                 print(context.beginSectionRenderingCode());
                 println();
                 depth++;
+                profileIteration(profileId);
             } catch (ContextException ex) {
                 throw new ProcessingException(position, ex);
             }
@@ -168,31 +215,70 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
         }
 
 
+        /*
+         * The parent template is inlined with the blocks given inside the parent tag
+         * once the tag is closed.
+         */
         @Override
         public @Nullable Void beginParentSection(String name) throws ProcessingException {
             flushUnescaped();
-            try {
-                context = context.getChild(name, ChildType.PARENT);
+            collecting = new Collecting(new BlockOverrides.TokenCollector(name), (tokens, end) -> {
+                BlockOverrides parentOverrides = overrides.inherit(tokens);
                 println();
-                print("// parent: " + context.currentEnclosedContextName());
+                print("// parent: " + name);
                 println();
-                //print(context.beginSectionRenderingCode());
-                //println()
-                depth++;
-                if (partial != null) {
-                    throw new IllegalStateException("partial is already started for this context");
+                try {
+                    if (! includeShared(name, parentOverrides)) {
+                        try (var partial = createPartialCompiler(name, parentOverrides)) {
+                            partial.run();
+                        }
+                    }
+                } catch (IOException ex) {
+                    throw new ProcessingException(end, ex);
                 }
-                partial = createPartialCompiler(name);
-                
-            } catch (ContextException | IOException ex) {
-                throw new ProcessingException(position, ex);
-            }
+                print("// end parent: " + name);
+                println();
+            });
             return null;
         }
 
+        /*
+         * A partial without overrides that is included outside of any section is rendered
+         * by the class it shares with the other renderers of the same data.
+         */
+        private boolean includeShared(String name, BlockOverrides parentOverrides) throws ProcessingException, IOException {
+            var sharedPartials = getSharedPartials();
+            String data = context.rootDataExpression();
+            if (sharedPartials == null || data == null || ! parentOverrides.isEmpty()) {
+                return false;
+            }
+            var shared = sharedPartials.share(name);
+            String staticText = shared.staticText();
+            if (staticText != null) {
+                printCodeToWrite(staticText);
+                return true;
+            }
+            dynamic();
+            print(shared.className() + ".render(" + data + ", " + context.writerExpression() + ", " + context.unescapedWriterExpression() + "); ");
+            println();
+            return true;
+        }
+
+        /*
+         * An overridden block skips its default content and compiles the override in its place.
+         */
         @Override
         public @Nullable Void beginBlockSection(String name) throws ProcessingException {
-            // TODO Auto-generated method stub
+            var override = overrides.get(name);
+            if (override == null) {
+                openBlocks.push(new OpenBlock(name, context));
+                return null;
+            }
+            collecting = new Collecting(new BlockOverrides.TokenCollector(name), (tokens, end) -> {
+                for (var token : override) {
+                    processToken(token);
+                }
+            });
             return null;
         }
 
@@ -201,6 +287,14 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
         public @Nullable Void endSection(String name) throws ProcessingException {
 
             flushUnescaped();
+            var block = openBlocks.peek();
+            if (block != null && block.context() == context) {
+                if (! block.name().equals(name)) {
+                    throw new ProcessingException(position, "Closing " + name + " block instead of " + block.name());
+                }
+                openBlocks.pop();
+                return null;
+            }
             if (!context.isEnclosed()) {
                 throw new ProcessingException(position, "Closing " + name + " block when no block is currently open");
             }
@@ -208,22 +302,16 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
                 throw new ProcessingException(position, "Closing " + name + " block instead of " + context.currentEnclosedContextName());
             }
             else {
-                if (context.getType() == ChildType.PARENT) {
-                    var p = partial;
-                    if (p == null) {
-                        throw new IllegalStateException("partial is already started for this context");
-                    }
-                    try (p) {
-                        p.run();
-                        partial = null;
-                    } catch (IOException e) {
-                        throw new ProcessingException(position, e);
-                    }
-                    
-                }
                 depth--;
                 print(context.endSectionRenderingCode());
                 println();
+                var budget = getBudget();
+                if (budget != null && ! getWriter().suppressesOutput() && context.getType() == ChildType.SECTION) {
+                    budget.endSection(context.isLoop());
+                }
+                if (getProfiling() != null) {
+                    endProfile(profiledSections.pop());
+                }
                 print("// end section: " + context.currentEnclosedContextName());
                 println();
                 context = context.parentContext();
@@ -233,17 +321,26 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
 
         @Override
         public @Nullable Void variable(String name) throws ProcessingException {
-            flushUnescaped();
-            println();
             try {
                 if (!expectsYield || !name.equals("yield")) {
                     //TemplateCompilerContext variable = context.getChild(name);
-                    TemplateCompilerContext variable = context.getChild(name, ChildType.ESCAPED_VAR);
+                    TemplateCompilerContext variable = child(name, ChildType.ESCAPED_VAR);
+                    if (constant(variable, false)) {
+                        return null;
+                    }
+                    flushUnescaped();
+                    println();
+                    dynamic();
                     print("// variable: " + variable.currentEnclosedContextName());
                     println();
-                    print(variable.renderingCode());
+                    int profileId = beginProfile("{{" + name + "}}");
+                    print(renderingCode(variable, false));
                     println();
+                    profileIteration(profileId);
+                    endProfile(profileId);
                 } else {
+                    flushUnescaped();
+                    println();
                     if (foundYield)
                         throw new ProcessingException(position, "Yield can be used only once");
                     else if (context.isEnclosed())
@@ -260,16 +357,25 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
 
         @Override
         public @Nullable Void unescapedVariable(String name) throws ProcessingException {
-            flushUnescaped();
-            println();
             try {
                 if (!expectsYield || !name.equals("yield")) {
-                    TemplateCompilerContext variable = context.getChild(name, ChildType.UNESCAPED_VAR);
+                    TemplateCompilerContext variable = child(name, ChildType.UNESCAPED_VAR);
+                    if (constant(variable, true)) {
+                        return null;
+                    }
+                    flushUnescaped();
+                    println();
+                    dynamic();
                     print("// unescaped variable: " + variable.currentEnclosedContextName());
                     println();
-                    print(variable.unescapedRenderingCode());
+                    int profileId = beginProfile("{{{" + name + "}}}");
+                    print(renderingCode(variable, true));
                     println();
+                    profileIteration(profileId);
+                    endProfile(profileId);
                 } else {
+                    flushUnescaped();
+                    println();
                     if (foundYield)
                         throw new ProcessingException(position, "Yield can be used only once");
                     if (context.isEnclosed())
@@ -290,6 +396,7 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
 
         @Override
         public @Nullable Void specialCharacter(char c) throws ProcessingException {
+            staticOutput(1);
             if (c == '\n') {
                 printCodeToWrite("\\n");
             } else if (c == '"') {
@@ -301,6 +408,7 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
 
         @Override
         public @Nullable Void text(String s) throws ProcessingException {
+            staticOutput(s.length());
             printCodeToWrite(s);
             return null;
         }
@@ -308,6 +416,10 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
         @Override
         public @Nullable Void endOfFile() throws ProcessingException {
             flushUnescaped();
+            var block = openBlocks.peek();
+            if (block != null) {
+                throw new ProcessingException(position, "Unclosed " + block.name() + " block at end of file");
+            }
             if (!context.isEnclosed())
                 return null;
             else {
@@ -315,30 +427,125 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
             }
         }
 
+        /*
+         * Type resolution is timed for the compile metrics report.
+         */
+        private TemplateCompilerContext child(String name, ChildType childType) throws ContextException {
+            long start = System.nanoTime();
+            try {
+                return context.getChild(name, childType);
+            } finally {
+                var metrics = getMetrics();
+                if (metrics != null) {
+                    metrics.resolved(start);
+                }
+            }
+        }
+
+        private String renderingCode(TemplateCompilerContext variable, boolean unescaped) throws ContextException {
+            long start = System.nanoTime();
+            try {
+                return unescaped ? variable.unescapedRenderingCode() : variable.renderingCode();
+            } finally {
+                var metrics = getMetrics();
+                if (metrics != null) {
+                    metrics.resolved(start);
+                }
+            }
+        }
+
+        /*
+         * Profiling code is only emitted with the profile processor option,
+         * otherwise these are no-ops and the generated code is unchanged.
+         */
+        private int beginProfile(String label) {
+            var profiling = getProfiling();
+            if (profiling == null) {
+                return -1;
+            }
+            int id = profiling.register(label, position);
+            print(profiling.beginCode(id, context.unescapedWriterExpression()));
+            println();
+            return id;
+        }
+
+        private int beginSectionProfile(String label) {
+            int id = beginProfile(label);
+            if (getProfiling() != null) {
+                profiledSections.push(id);
+            }
+            return id;
+        }
+
+        private void profileIteration(int id) {
+            var profiling = getProfiling();
+            if (profiling != null && id >= 0) {
+                print(profiling.iterationCode(id));
+                println();
+            }
+        }
+
+        private void endProfile(int id) {
+            var profiling = getProfiling();
+            if (profiling != null && id >= 0) {
+                print(profiling.endCode(id, context.unescapedWriterExpression()));
+                println();
+            }
+        }
+
+        /*
+         * Compile-time constants join the surrounding text instead of being formatted at runtime.
+         */
+        private boolean constant(TemplateCompilerContext variable, boolean unescaped) {
+            String text = variable.constantText(unescaped);
+            if (text == null) {
+                return false;
+            }
+            staticOutput(text.length());
+            printCodeToWrite(StaticText.escape(text));
+            return true;
+        }
+
+        private void dynamic() {
+            if (! getWriter().suppressesOutput()) {
+                getStaticText().dynamic();
+            }
+        }
+
+        private void staticOutput(int length) {
+            var budget = getBudget();
+            if (budget != null && ! getWriter().suppressesOutput()) {
+                budget.staticOutput(length);
+            }
+        }
+
         private void printCodeToWrite(String s) {
             currentUnescaped.append(s);
+            if (! getWriter().suppressesOutput()) {
+                getStaticText().append(s);
+            }
         }
         
         
         private void _printCodeToWrite(String s) {
             if (s.isEmpty()) return;
-            int i = 0;
-            StringBuilder code = new StringBuilder();
-            for (String line : CodeNewLineSplitter.split(s, "\\n")) {
-                if (i > 0) {
-                    code.append(" +");
-                }
-                code.append("\n    \"");
-                code.append(line);
-                code.append("\"");
-                i++;
-            }
             println();
-            print(context.unescapedWriterExpression() + ".append(" + code.toString() + "); ");
+            print("appendStatic(" + context.unescapedWriterExpression() + ", " + stringLiteral(s) + "); ");
             println();
         }
 
         private void print(String s) {
+            var metrics = getMetrics();
+            var budget = getBudget();
+            if ((metrics != null || budget != null) && ! getWriter().suppressesOutput()) {
+                int statements = statementCount(s);
+                if (metrics != null) {
+                    metrics.statements(statements);
+                }
+                if (budget != null) {
+                    budget.statements(statements);
+                }
+            }
             int i = 0;
             for (String line : s.split("\n")) {
                 if (i > 0) {
@@ -362,20 +569,80 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
 
     }
 
+    /**
+     * Counts the semicolons of generated code outside of string and character literals and comments,
+     * so that template text and escaped constants don't add to the statement count.
+     * Every fragment of code is printed whole, so literals and comments don't span fragments.
+     */
+    static int statementCount(String code) {
+        int count = 0;
+        int length = code.length();
+        for (int i = 0; i < length; i++) {
+            char c = code.charAt(i);
+            if (c == ';') {
+                count++;
+            } else if (c == '"' || c == '\'') {
+                for (i++; i < length && code.charAt(i) != c; i++) {
+                    if (code.charAt(i) == '\\') {
+                        i++;
+                    }
+                }
+            } else if (c == '/' && i + 1 < length && code.charAt(i + 1) == '/') {
+                int end = code.indexOf('\n', i);
+                i = end < 0 ? length : end;
+            } else if (c == '/' && i + 1 < length && code.charAt(i + 1) == '*') {
+                int end = code.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return string literal split after new lines, one line of text per line of code
+     */
+    static String stringLiteral(String literalCode) {
+        int i = 0;
+        StringBuilder code = new StringBuilder();
+        for (String line : CodeNewLineSplitter.split(literalCode, "\\n")) {
+            if (i > 0) {
+                code.append(" +");
+            }
+            code.append("\n    \"");
+            code.append(line);
+            code.append("\"");
+            i++;
+        }
+        return code.toString();
+    }
+
     static class RootTemplateCompiler extends TemplateCompiler {
         
         private final TemplateLoader templateLoader;
         private final CodeAppendable writer;
+        private final @Nullable SectionProfiling profiling;
+        private final @Nullable CompileMetrics metrics;
+        private final @Nullable CompileBudget budget;
+        private final SharedPartials.@Nullable Scope sharedPartials;
+        private final StaticText staticText = new StaticText();
         
         public RootTemplateCompiler(
                 String templateName,
                 TemplateLoader templateLoader,
                 CodeAppendable writer,
                 TemplateCompilerContext context, 
-                boolean expectsYield) throws IOException {
-            super(templateLoader.open(templateName), null, context, expectsYield);
+                boolean expectsYield,
+                @Nullable SectionProfiling profiling,
+                @Nullable CompileMetrics metrics,
+                @Nullable CompileBudget budget,
+                SharedPartials.@Nullable Scope sharedPartials) throws IOException {
+            super(templateName, null, context, expectsYield, BlockOverrides.EMPTY);
             this.templateLoader = templateLoader;
             this.writer = writer;
+            this.profiling = profiling;
+            this.metrics = metrics;
+            this.budget = budget;
+            this.sharedPartials = sharedPartials;
         }
 
         @Override
@@ -393,6 +660,31 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
             return this.writer;
         }
         
+        @Override
+        public @Nullable SectionProfiling getProfiling() {
+            return this.profiling;
+        }
+        
+        @Override
+        public @Nullable CompileMetrics getMetrics() {
+            return this.metrics;
+        }
+        
+        @Override
+        public @Nullable CompileBudget getBudget() {
+            return this.budget;
+        }
+        
+        @Override
+        public SharedPartials.@Nullable Scope getSharedPartials() {
+            return this.sharedPartials;
+        }
+        
+        @Override
+        public StaticText getStaticText() {
+            return this.staticText;
+        }
+        
     }
     
     static class SimpleTemplateCompiler extends RootTemplateCompiler {
@@ -400,8 +692,12 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
         private SimpleTemplateCompiler(String templateName,
                 TemplateLoader templateLoader,
                 CodeAppendable writer,
-                TemplateCompilerContext context) throws IOException {
-            super(templateName, templateLoader, writer, context, false);
+                TemplateCompilerContext context,
+                @Nullable SectionProfiling profiling,
+                @Nullable CompileMetrics metrics,
+                @Nullable CompileBudget budget,
+                SharedPartials.@Nullable Scope sharedPartials) throws IOException {
+            super(templateName, templateLoader, writer, context, false, profiling, metrics, budget, sharedPartials);
         }
 
         @Override
@@ -421,9 +717,12 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
                 String templateName,
                 TemplateLoader templateLoader,
                 CodeAppendable writer,
-                TemplateCompilerContext context
+                TemplateCompilerContext context,
+                @Nullable SectionProfiling profiling,
+                @Nullable CompileMetrics metrics,
+                @Nullable CompileBudget budget
                 ) throws IOException {
-            super(templateName, templateLoader, writer, context, true);
+            super(templateName, templateLoader, writer, context, true, profiling, metrics, budget, null);
 
         }
 
@@ -445,9 +744,12 @@ class TemplateCompiler implements TemplateCompilerLike, TokenProcessor<Positione
                 String templateName,
                 TemplateLoader templateLoader,
                 CodeAppendable writer,
-                TemplateCompilerContext context
+                TemplateCompilerContext context,
+                @Nullable SectionProfiling profiling,
+                @Nullable CompileMetrics metrics,
+                @Nullable CompileBudget budget
                 ) throws IOException {
-            super(templateName, templateLoader, writer, context, true);
+            super(templateName, templateLoader, writer, context, true, profiling, metrics, budget, null);
         }
 
         @Override
@@ -23,10 +23,30 @@ interface TemplateCompilerLike extends AutoCloseable {
 
     }
     
-    PartialTemplateCompiler createPartialCompiler(String templateName) throws ProcessingException, IOException;
+    default @Nullable SectionProfiling getProfiling() {
+        return Objects.requireNonNull(getParent()).getProfiling();
+    }
+    
+    default @Nullable CompileMetrics getMetrics() {
+        return Objects.requireNonNull(getParent()).getMetrics();
+    }
+    
+    default @Nullable CompileBudget getBudget() {
+        return Objects.requireNonNull(getParent()).getBudget();
+    }
+    
+    default SharedPartials.@Nullable Scope getSharedPartials() {
+        return Objects.requireNonNull(getParent()).getSharedPartials();
+    }
+    
+    default StaticText getStaticText() {
+        return Objects.requireNonNull(getParent()).getStaticText();
+    }
+    
+    PartialTemplateCompiler createPartialCompiler(String templateName, BlockOverrides overrides) throws ProcessingException, IOException;
     
     interface TemplateLoader {
-        NamedReader open(String name) throws IOException;
+        TokenizedTemplate load(String name) throws IOException;
     }
     
     class PartialTemplateCompiler implements AutoCloseable {
@@ -0,0 +1,107 @@
+package com.snaphop.staticmustache.apt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Reads and tokenizes the templates of a processing round in parallel.
+ * <p>
+ * The {@link javax.annotation.processing.Filer} is not thread safe, so resources are looked up
+ * and opened on the processor thread. Only reading the opened streams and tokenizing runs on
+ * the fork-join pool. Type resolution and code generation stay on the processor thread
+ * and consume the prefetched tokens with {@link #load(TextFileObject, String)}.
+ */
+class TemplatePrefetcher {
+    private final Executor executor;
+    private final Map<Key, Prefetched> templates = new HashMap<>();
+
+    TemplatePrefetcher() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    TemplatePrefetcher(Executor executor) {
+        this.executor = executor;
+    }
+
+    void prefetch(TextFileObject resource, String name) {
+        Key key = new Key(name, resource.charset());
+        if (templates.containsKey(key)) {
+            return;
+        }
+        InputStream inputStream;
+        try {
+            inputStream = resource.openInputStream(name);
+        } catch (IOException | RuntimeException ex) {
+            /*
+             * Missing templates are reported when the adapter is compiled.
+             */
+            return;
+        }
+        Charset charset = resource.charset();
+        var future = CompletableFuture.supplyAsync(() -> {
+            try {
+                return TokenizedTemplate.read(inputStream, charset, name);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, executor);
+        templates.put(key, new Prefetched(resource, future));
+    }
+
+    /**
+     * Waits for prefetched templates and prefetches the partials they include until all are known.
+     */
+    void prefetchPartials() {
+        Deque<Prefetched> pending = new ArrayDeque<>(templates.values());
+        while (! pending.isEmpty()) {
+            Prefetched prefetched = pending.pop();
+            TokenizedTemplate template;
+            try {
+                template = prefetched.future().join();
+            } catch (CompletionException ex) {
+                continue;
+            }
+            for (String partial : template.partialNames()) {
+                Key key = new Key(partial, prefetched.resource().charset());
+                if (! templates.containsKey(key)) {
+                    prefetch(prefetched.resource(), partial);
+                    Prefetched p = templates.get(key);
+                    if (p != null) {
+                        pending.add(p);
+                    }
+                }
+            }
+        }
+    }
+
+    TokenizedTemplate load(TextFileObject resource, String name) throws IOException {
+        Prefetched prefetched = templates.get(new Key(name, resource.charset()));
+        if (prefetched == null) {
+            return TokenizedTemplate.read(resource.openInputStream(name), resource.charset(), name);
+        }
+        try {
+            return prefetched.future().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private record Key(String name, Charset charset) {
+    }
+
+    private record Prefetched(TextFileObject resource, CompletableFuture<TokenizedTemplate> future) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.snaphop.staticmustache.apt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.github.sviperll.staticmustache.token.MustacheTokenizer;
+
+/**
+ * Tokens of a template file read ahead of compilation.
+ * <p>
+ * Reading and tokenizing do not use the javac model so templates can be tokenized
+ * on any thread and replayed into a {@link TemplateCompiler} later.
+ * A syntax error is kept and rethrown after the tokens preceding it have been replayed.
+ */
+final class TokenizedTemplate {
+    private final String name;
+    private final List<PositionedToken<MustacheToken>> tokens;
+    private final @Nullable ProcessingException error;
+    private final long loadNanos;
+    private final long tokenizeNanos;
+
+    private TokenizedTemplate(String name, List<PositionedToken<MustacheToken>> tokens, @Nullable ProcessingException error,
+            long loadNanos, long tokenizeNanos) {
+        this.name = name;
+        this.tokens = tokens;
+        this.error = error;
+        this.loadNanos = loadNanos;
+        this.tokenizeNanos = tokenizeNanos;
+    }
+
+    static TokenizedTemplate read(InputStream inputStream, Charset charset, String name) throws IOException {
+        long start = System.nanoTime();
+        String template;
+        try (inputStream) {
+            template = new String(inputStream.readAllBytes(), charset);
+        }
+        long loaded = System.nanoTime();
+        List<PositionedToken<MustacheToken>> tokens = new ArrayList<>();
+        ProcessingException error = null;
+        TokenProcessor<Character> processor = MustacheTokenizer.createInstance(name, tokens::add);
+        try {
+            for (int i = 0; i < template.length(); i++) {
+                processor.processToken(template.charAt(i));
+            }
+            processor.processToken(TokenProcessor.EOF);
+        } catch (ProcessingException ex) {
+            error = ex;
+        }
+        return new TokenizedTemplate(name, List.copyOf(tokens), error, loaded - start, System.nanoTime() - loaded);
+    }
+
+    String name() {
+        return name;
+    }
+
+    long loadNanos() {
+        return loadNanos;
+    }
+
+    long tokenizeNanos() {
+        return tokenizeNanos;
+    }
+
+    void replay(TokenProcessor<PositionedToken<MustacheToken>> processor) throws ProcessingException {
+        for (var token : tokens) {
+            processor.processToken(token);
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * @return templates included with <code>{{&lt;parent}}</code> so that they can be read ahead as well
+     */
+    Set<String> partialNames() {
+        Set<String> names = new LinkedHashSet<>();
+        MustacheToken.Visitor<@Nullable Void, RuntimeException> visitor = new MustacheToken.Visitor<>() {
+            @Override
+            public @Nullable Void beginParentSection(String name) {
+                names.add(name);
+                return null;
+            }
+            @Override
+            public @Nullable Void beginSection(String name) {
+                return null;
+            }
+            @Override
+            public @Nullable Void beginInvertedSection(String name) {
+                return null;
+            }
+            @Override
+            public @Nullable Void beginBlockSection(String name) {
+                return null;
+            }
+            @Override
+            public @Nullable Void endSection(String name) {
+                return null;
+            }
+            @Override
+            public @Nullable Void variable(String name) {
+                return null;
+            }
+            @Override
+            public @Nullable Void unescapedVariable(String name) {
+                return null;
+            }
+            @Override
+            public @Nullable Void specialCharacter(char c) {
+                return null;
+            }
+            @Override
+            public @Nullable Void text(String s) {
+                return null;
+            }
+            @Override
+            public @Nullable Void endOfFile() {
+                return null;
+            }
+        };
+        for (var token : tokens) {
+            token.innerToken().accept(visitor);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.sviperll.staticmustache.apt.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import com.snaphop.staticmustache.apt.GenerateRenderableAdapterProcessor;
+
+/**
+ * Runs javac with the processor over sources and templates written to a temporary directory.
+ */
+final class Compilation implements AutoCloseable {
+
+    private final Path root;
+    private final Path classes;
+    private final Path generated;
+    private final boolean success;
+    private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+    private URLClassLoader classLoader;
+
+    private Compilation(Path root, Path classes, Path generated, boolean success,
+            List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        this.root = root;
+        this.classes = classes;
+        this.generated = generated;
+        this.success = success;
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * @param sources source code by class name
+     * @param templates template content by path
+     * @param options processor options, given without {@code -A}
+     */
+    static Compilation compile(Map<String, String> sources, Map<String, String> templates, String... options) throws IOException {
+        Path root = Files.createTempDirectory("static-mustache-apt");
+        Path src = Files.createDirectories(root.resolve("src"));
+        Path classes = Files.createDirectories(root.resolve("classes"));
+        Path generated = Files.createDirectories(root.resolve("generated"));
+        List<Path> files = new ArrayList<>();
+        for (var e : sources.entrySet()) {
+            Path file = src.resolve(e.getKey().replace('.', '/') + ".java");
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, e.getValue(), StandardCharsets.UTF_8);
+            files.add(file);
+        }
+        for (var e : templates.entrySet()) {
+            Path file = classes.resolve(e.getKey());
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, e.getValue(), StandardCharsets.UTF_8);
+        }
+        List<String> arguments = new ArrayList<>();
+        arguments.add("-classpath");
+        arguments.add(System.getProperty("java.class.path"));
+        arguments.add("-encoding");
+        arguments.add("UTF-8");
+        for (String option : options) {
+            arguments.add("-A" + option);
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(collector, Locale.ROOT, StandardCharsets.UTF_8)) {
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(classes));
+            fileManager.setLocationFromPaths(StandardLocation.SOURCE_OUTPUT, List.of(generated));
+            var task = compiler.getTask(null, fileManager, collector, arguments, null, fileManager.getJavaFileObjectsFromPaths(files));
+            task.setProcessors(List.of(new GenerateRenderableAdapterProcessor()));
+            boolean success = task.call();
+            return new Compilation(root, classes, generated, success, collector.getDiagnostics());
+        }
+    }
+
+    boolean success() {
+        return success;
+    }
+
+    Compilation assertSuccess() {
+        assertTrue(messages(Diagnostic.Kind.ERROR).toString(), success);
+        return this;
+    }
+
+    List<String> messages(Diagnostic.Kind kind) {
+        return diagnostics.stream()
+                .filter(d -> d.getKind() == kind)
+                .map(d -> d.getMessage(Locale.ROOT))
+                .collect(Collectors.toList());
+    }
+
+    Path classes() {
+        return classes;
+    }
+
+    /**
+     * @return generated source of the class or null when it was not generated
+     */
+    String generatedSource(String className) throws IOException {
+        Path file = generated.resolve(className.replace('.', '/') + ".java");
+        return Files.exists(file) ? Files.readString(file) : null;
+    }
+
+    /**
+     * @return compiled classes on top of the test class path, so that runtime classes are shared with the test
+     */
+    ClassLoader classLoader() throws MalformedURLException {
+        if (classLoader == null) {
+            classLoader = new URLClassLoader(new URL[] { classes.toUri().toURL() }, getClass().getClassLoader());
+        }
+        return classLoader;
+    }
+
+    /**
+     * Calls {@code of(data).renderString()} of a generated renderer.
+     */
+    String render(String rendererClassName, Object data) throws ReflectiveOperationException, MalformedURLException {
+        Class<?> renderer = classLoader().loadClass(rendererClassName);
+        Object function = renderer.getMethod("of", data.getClass()).invoke(null, data);
+        return (String) function.getClass().getMethod("renderString").invoke(function);
+    }
+
+    /**
+     * Creates a record of a compiled type from its component values.
+     */
+    Object newInstance(String className, Object... arguments) throws ReflectiveOperationException, MalformedURLException {
+        Class<?> type = classLoader().loadClass(className);
+        return type.getDeclaredConstructors()[0].newInstance(arguments);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (classLoader != null) {
+            classLoader.close();
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.delete(p);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.github.sviperll.staticmustache.apt.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+
+import org.junit.Test;
+
+public class CompileBudgetTest {
+
+    private static final String GRID = """
+            package budget;
+
+            import java.util.List;
+
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapters;
+
+            @GenerateRenderableAdapters({
+                @GenerateRenderableAdapter(template = "grid.mustache"),
+                @GenerateRenderableAdapter(template = "title.mustache", adapterName = "TitleRenderer")
+            })
+            public record Grid(String title, List<Row> rows) {
+                public record Row(List<String> cells) {
+                }
+            }
+            """;
+
+    private static final String TEMPLATE = """
+            <h1>{{title}}</h1>
+            <table>
+            {{#rows}}
+            <tr>{{#cells}}<td>{{.}}</td>{{/cells}}</tr>
+            {{/rows}}
+            </table>
+            """;
+
+    private static Compilation compile(String... options) throws Exception {
+        return Compilation.compile(Map.of("budget.Grid", GRID),
+                Map.of("grid.mustache", TEMPLATE, "title.mustache", "{{title}}"), options);
+    }
+
+    private static String warning(Compilation compilation) {
+        List<String> warnings = compilation.messages(Diagnostic.Kind.WARNING);
+        assertEquals(warnings.toString(), 1, warnings.size());
+        return warnings.get(0);
+    }
+
+    @Test
+    public void testWithinBudgetsNothingIsReported() throws Exception {
+        try (Compilation c = compile().assertSuccess()) {
+            assertEquals(List.of(), c.messages(Diagnostic.Kind.WARNING));
+        }
+    }
+
+    @Test
+    public void testMethodSizeBudget() throws Exception {
+        try (Compilation c = compile("staticmustache.budget.methodSize=40").assertSuccess()) {
+            String warning = warning(c);
+            assertTrue(warning, warning.matches("(?s)grid\\.mustache:3: warning: Generated render method exceeds the method size budget: "
+                    + "about \\d+ bytes of bytecode, budget is 40\n\\s*\\{\\{#rows}}\n.*"));
+            assertNotNull(c.generatedSource("budget.GridRenderer"));
+        }
+    }
+
+    @Test
+    public void testTemplateTextDoesNotAddToMethodSize() throws Exception {
+        String styled = """
+                package budget;
+
+                import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+                import com.github.sviperll.staticmustache.GenerateRenderableAdapters;
+
+                @GenerateRenderableAdapters({
+                    @GenerateRenderableAdapter(template = "plain.mustache", adapterName = "PlainRenderer"),
+                    @GenerateRenderableAdapter(template = "styled.mustache", adapterName = "StyledRenderer")
+                })
+                public record Styled(String title) {
+                }
+                """;
+        try (Compilation c = Compilation.compile(Map.of("budget.Styled", styled),
+                Map.of("plain.mustache", "<p>{{title}}</p>",
+                        "styled.mustache", "<style>p { color: red; margin: 0; }</style>\n"
+                                + "<p title=\"a;b\" onclick='f(); g();'>&nbsp;{{title}}&nbsp;</p>"),
+                "staticmustache.budget.methodSize=1").assertSuccess()) {
+            List<String> estimates = c.messages(Diagnostic.Kind.WARNING).stream()
+                    .map(w -> w.replaceAll("(?s).*about (\\d+) bytes.*", "$1"))
+                    .toList();
+            assertEquals(estimates.toString(), 2, estimates.size());
+            assertEquals(estimates.get(0), estimates.get(1));
+        }
+    }
+
+    @Test
+    public void testLoopDepthBudget() throws Exception {
+        try (Compilation c = compile("staticmustache.budget.loopDepth=1").assertSuccess()) {
+            String warning = warning(c);
+            assertTrue(warning, warning.startsWith("grid.mustache:4: warning: Section cells is nested 2 loops deep, loop depth budget is 1\n"));
+            assertTrue(warning, warning.contains("<tr>{{#cells}}<td>{{.}}</td>{{/cells}}</tr>\n"
+                    + " ".repeat("  <tr>{{#cells}}".length()) + "^"));
+        }
+        try (Compilation c = compile("staticmustache.budget.loopDepth=2").assertSuccess()) {
+            assertEquals(List.of(), c.messages(Diagnostic.Kind.WARNING));
+        }
+    }
+
+    @Test
+    public void testBudgetsCountPartialsIncludedOutsideOfSections() throws Exception {
+        String rows = """
+                {{#rows}}
+                <tr>{{#cells}}<td>{{.}}</td>{{/cells}}</tr>
+                {{/rows}}
+                """;
+        Map<String, String> templates = Map.of("grid.mustache", "<table>{{<rows.mustache}}{{/rows.mustache}}</table>"
+                + "{{<footer.mustache}}{{/footer.mustache}}",
+                "rows.mustache", rows, "footer.mustache", "<footer>static footer</footer>",
+                "title.mustache", "{{title}}");
+        try (Compilation c = Compilation.compile(Map.of("budget.Grid", GRID), templates, "staticmustache.budget.loopDepth=1").assertSuccess()) {
+            assertTrue(warning(c).startsWith("rows.mustache:2: warning: Section cells is nested 2 loops deep, loop depth budget is 1\n"));
+            assertFalse(c.generatedSource("budget.GridRenderer").contains("Partial.render("));
+        }
+        try (Compilation c = Compilation.compile(Map.of("budget.Grid", GRID), templates, "staticmustache.budget.staticOutput=40").assertSuccess()) {
+            String warning = warning(c);
+            assertTrue(warning, warning.startsWith("footer.mustache:1: warning: Template exceeds the static output budget: "
+                    + "66 characters of static text, budget is 40\n"));
+        }
+        try (Compilation c = Compilation.compile(Map.of("budget.Grid", GRID), templates).assertSuccess()) {
+            assertTrue(c.generatedSource("budget.GridRenderer").contains("Partial.render("));
+        }
+    }
+
+    @Test
+    public void testAdapterBudgetOverridesOption() throws Exception {
+        String grid = GRID.replace("@GenerateRenderableAdapter(template = \"grid.mustache\")",
+                "@GenerateRenderableAdapter(template = \"grid.mustache\", loopDepthBudget = 1)");
+        try (Compilation c = Compilation.compile(Map.of("budget.Grid", grid), Map.of("grid.mustache", TEMPLATE, "title.mustache", "{{title}}"),
+                "staticmustache.budget.loopDepth=5").assertSuccess()) {
+            assertTrue(warning(c).startsWith("grid.mustache:4: warning: Section cells is nested 2 loops deep, loop depth budget is 1\n"));
+        }
+        try (Compilation c = Compilation.compile(Map.of("budget.Grid", grid), Map.of("grid.mustache", TEMPLATE, "title.mustache", "{{title}}"))
+                .assertSuccess()) {
+            assertTrue(warning(c).startsWith("grid.mustache:4: warning: Section cells is nested 2 loops deep, loop depth budget is 1\n"));
+        }
+        String relaxed = GRID.replace("@GenerateRenderableAdapter(template = \"grid.mustache\")",
+                "@GenerateRenderableAdapter(template = \"grid.mustache\", loopDepthBudget = 2)");
+        try (Compilation c = Compilation.compile(Map.of("budget.Grid", relaxed), Map.of("grid.mustache", TEMPLATE, "title.mustache", "{{title}}"),
+                "staticmustache.budget.loopDepth=1", "staticmustache.budget.fail=true").assertSuccess()) {
+            assertEquals(List.of(), c.messages(Diagnostic.Kind.WARNING));
+        }
+    }
+
+    @Test
+    public void testStaticOutputBudget() throws Exception {
+        try (Compilation c = compile("staticmustache.budget.staticOutput=20").assertSuccess()) {
+            String warning = warning(c);
+            assertTrue(warning, warning.startsWith("grid.mustache:4: warning: Template exceeds the static output budget: "
+                    + "23 characters of static text, budget is 20\n"));
+        }
+    }
+
+    @Test
+    public void testFailModeReportsErrorAndSkipsAdapter() throws Exception {
+        try (Compilation c = compile("staticmustache.budget.loopDepth=1", "staticmustache.budget.fail=true")) {
+            assertFalse(c.success());
+            assertEquals(List.of(), c.messages(Diagnostic.Kind.WARNING));
+            List<String> errors = c.messages(Diagnostic.Kind.ERROR);
+            assertEquals(errors.toString(), 1, errors.size());
+            assertTrue(errors.get(0), errors.get(0).startsWith("grid.mustache:4: error: Section cells is nested 2 loops deep"));
+            assertNull(c.generatedSource("budget.GridRenderer"));
+            assertNotNull(c.generatedSource("budget.TitleRenderer"));
+        }
+    }
+
+    @Test
+    public void testBadOptionValueIsReportedOnce() throws Exception {
+        try (Compilation c = compile("staticmustache.budget.methodSize=abc")) {
+            assertFalse(c.success());
+            assertEquals(List.of("-Astaticmustache.budget.methodSize should be an integer but was: abc"),
+                    c.messages(Diagnostic.Kind.ERROR));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.sviperll.staticmustache.apt.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.Diagnostic;
+
+import org.junit.Test;
+
+public class CompileMetricsTest {
+
+    private static final String INVOICE = """
+            package metrics;
+
+            import java.util.List;
+
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapters;
+
+            @GenerateRenderableAdapters({
+                @GenerateRenderableAdapter(template = "invoice.mustache"),
+                @GenerateRenderableAdapter(template = "invoice-line.mustache", adapterName = "InvoiceLineRenderer")
+            })
+            public record Invoice(String number, List<String> lines) {
+            }
+            """;
+
+    private static final Pattern ENTRY = Pattern.compile(
+            "\\{\"adapter\": \"(\\w+)\", \"template\": \"([\\w.-]+)\", \"totalNanos\": (\\d+), .*?\"sourceLength\": (\\d+), "
+            + "\"renderMethods\": \\[\\{\"class\": \"(\\w+)\", \"statements\": (\\d+), \"estimatedBytecode\": (\\d+)\\}\\]\\}");
+
+    @Test
+    public void testMetricsAreReportedAsNoteAndJson() throws Exception {
+        Path dir = Files.createTempDirectory("static-mustache-metrics");
+        Path report = dir.resolve("reports/metrics.json");
+        try (var compilation = Compilation.compile(Map.of("metrics.Invoice", INVOICE),
+                Map.of("invoice.mustache", "<h1>{{number}}</h1>{{#lines}}<p>{{.}}</p>{{/lines}}",
+                        "invoice-line.mustache", "{{number}}"),
+                "staticmustache.metrics=true", "staticmustache.metrics.report=" + report).assertSuccess()) {
+            List<String> notes = compilation.messages(Diagnostic.Kind.NOTE);
+            String note = notes.stream().filter(n -> n.startsWith("static-mustache compile metrics")).findFirst().orElseThrow();
+            assertTrue(note, note.contains("InvoiceRenderer (invoice.mustache): total "));
+            assertTrue(note, note.contains("InvoiceLineRenderer (invoice-line.mustache): total "));
+            assertTrue(note, note.contains("InvoiceRendererRenderer.render ~"));
+
+            String json = Files.readString(report);
+            assertTrue(json, json.startsWith("[\n  {") && json.endsWith("}\n]\n"));
+            Matcher m = ENTRY.matcher(json);
+            List<String> adapters = new ArrayList<>();
+            List<Long> totals = new ArrayList<>();
+            while (m.find()) {
+                String adapter = m.group(1);
+                adapters.add(adapter);
+                totals.add(Long.parseLong(m.group(3)));
+                assertEquals(adapter.equals("InvoiceRenderer") ? "invoice.mustache" : "invoice-line.mustache", m.group(2));
+                assertEquals(compilation.generatedSource("metrics." + adapter).length(), Long.parseLong(m.group(4)));
+                assertEquals(adapter + "Renderer", m.group(5));
+                assertTrue(Long.parseLong(m.group(6)) > 0);
+            }
+            assertEquals(json, 2, adapters.size());
+            assertTrue(adapters.containsAll(List.of("InvoiceRenderer", "InvoiceLineRenderer")));
+            assertTrue("slowest first: " + totals, totals.get(0) >= totals.get(1));
+        } finally {
+            Files.deleteIfExists(report);
+            Files.deleteIfExists(report.getParent());
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testNoMetricsWithoutOption() throws Exception {
+        try (var compilation = Compilation.compile(Map.of("metrics.Invoice", INVOICE),
+                Map.of("invoice.mustache", "{{number}}", "invoice-line.mustache", "{{number}}")).assertSuccess()) {
+            assertTrue(compilation.messages(Diagnostic.Kind.NOTE).stream().noneMatch(n -> n.contains("compile metrics")));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.sviperll.staticmustache.apt.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Array;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+public class LambdaSectionTest {
+
+    private static final String GRID = """
+            package lambda;
+
+            import java.util.List;
+            import java.util.concurrent.CompletableFuture;
+
+            import com.github.sviperll.staticmustache.Deferred;
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+            import com.github.sviperll.staticmustache.ParallelSection;
+
+            @GenerateRenderableAdapter(template = "grid.mustache")
+            public record Grid(Row[] rows, @ParallelSection(chunkSize = 1) List<Cell> cells) {
+                public record Row(@ParallelSection(chunkSize = 1) List<String> items, @Deferred CompletableFuture<String> note) {
+                }
+                public record Cell(@Deferred CompletableFuture<String> value, @ParallelSection(chunkSize = 1) List<String> tags) {
+                }
+            }
+            """;
+
+    private static final String TEMPLATE = "{{#rows}}[{{#items}}{{.}}{{/items}}|{{#note}}{{.}}{{/note}}]{{/rows}}"
+            + "{{#cells}}<{{#value}}{{.}}{{/value}}:{{#tags}}{{.}}{{/tags}}>{{/cells}}";
+
+    @Test
+    public void testSectionsNestedInLambdaOrArraySectionsRenderInPlace() throws Exception {
+        try (var compilation = Compilation.compile(Map.of("lambda.Grid", GRID), Map.of("grid.mustache", TEMPLATE)).assertSuccess()) {
+            String source = compilation.generatedSource("lambda.GridRenderer");
+            assertEquals(1, occurrences(source, "ParallelSections.render("));
+            assertEquals(0, occurrences(source, "DeferredSections.render("));
+
+            ClassLoader loader = compilation.classLoader();
+            Class<?> rowType = loader.loadClass("lambda.Grid$Row");
+            Object rows = Array.newInstance(rowType, 2);
+            Array.set(rows, 0, compilation.newInstance("lambda.Grid$Row", List.of("a", "b"), CompletableFuture.completedFuture("x")));
+            Array.set(rows, 1, compilation.newInstance("lambda.Grid$Row", List.of("c"), CompletableFuture.completedFuture("y")));
+            List<Object> cells = List.of(
+                    compilation.newInstance("lambda.Grid$Cell", CompletableFuture.completedFuture("1"), List.of("p", "q")),
+                    compilation.newInstance("lambda.Grid$Cell", CompletableFuture.completedFuture("2"), List.of("r")));
+            Object grid = compilation.newInstance("lambda.Grid", rows, cells);
+            assertEquals("[ab|x][c|y]<1:pq><2:r>", compilation.render("lambda.GridRenderer", grid));
+        }
+    }
+
+    private static int occurrences(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + part.length())) {
+            count++;
+        }
+        return count;
+    }
+}
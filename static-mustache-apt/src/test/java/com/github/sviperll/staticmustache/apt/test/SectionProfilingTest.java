@@ -0,0 +1,79 @@
+package com.github.sviperll.staticmustache.apt.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.spi.SectionProfile;
+
+public class SectionProfilingTest {
+
+    private static final String ORDER = """
+            package profiled;
+
+            import java.util.List;
+
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+            @GenerateRenderableAdapter(template = "order.mustache")
+            public record Order(String customer, List<String> items) {
+            }
+            """;
+
+    private static final String TEMPLATE = """
+            <h1>{{customer}}</h1>
+            <ul>
+            {{#items}}{{<item.mustache}}{{/item.mustache}}{{/items}}
+            </ul>
+            """;
+
+    @Test
+    public void testProfileRecordsSectionsOfTemplate() throws Exception {
+        try (var compilation = Compilation.compile(Map.of("profiled.Order", ORDER),
+                Map.of("order.mustache", TEMPLATE, "item.mustache", "<li>{{.}}</li>"),
+                "staticmustache.profile=true").assertSuccess()) {
+            Object order = compilation.newInstance("profiled.Order", "Ann", List.of("a", "bb", "ccc"));
+            assertEquals("<h1>Ann</h1>\n<ul>\n<li>a</li><li>bb</li><li>ccc</li>\n</ul>\n",
+                    compilation.render("profiled.OrderRenderer", order));
+
+            SectionProfile customer = profile("{{customer}}");
+            assertEquals("order.mustache:1:5", location(customer));
+            assertEquals(1, customer.count());
+            assertEquals(1, customer.iterations());
+            assertEquals("Ann".length(), customer.characters());
+
+            SectionProfile items = profile("{{#items}}");
+            assertEquals("order.mustache:3:1", location(items));
+            assertEquals(1, items.count());
+            assertEquals(3, items.iterations());
+            assertEquals("<li>a</li><li>bb</li><li>ccc</li>".length(), items.characters());
+
+            SectionProfile item = profile("{{.}}");
+            assertEquals("item.mustache:1:5", location(item));
+            assertEquals(3, item.count());
+            assertEquals("abbccc".length(), item.characters());
+
+            // Profiles are global, so the report also lists templates profiled by other tests
+            String slowest = SectionProfile.report().lines()
+                    .map(line -> line.split(" "))
+                    .filter(fields -> fields[2].equals("order.mustache"))
+                    .findFirst().orElseThrow()[1];
+            assertEquals(List.of(customer, items, item).stream().mapToLong(SectionProfile::nanos).max().getAsLong(),
+                    profile(slowest).nanos());
+        }
+    }
+
+    private static SectionProfile profile(String label) {
+        return SectionProfile.profiles().stream()
+                .filter(p -> p.template().equals("order.mustache") && p.label().equals(label))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No profile of " + label + " in " + SectionProfile.profiles()));
+    }
+
+    private static String location(SectionProfile profile) {
+        return profile.fileName() + ":" + profile.row() + ":" + profile.col();
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.sviperll.staticmustache.apt.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class SharedPartialTest {
+
+    private static final String CONTACT = """
+            package shared;
+
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapters;
+
+            @GenerateRenderableAdapters({
+                @GenerateRenderableAdapter(template = "card.mustache", adapterName = "ContactCardRenderer"),
+                @GenerateRenderableAdapter(template = "row.mustache", adapterName = "ContactRowRenderer")
+            })
+            public record Contact(String name, String email, Contact referrer) {
+            }
+            """;
+
+    private static final Map<String, String> TEMPLATES = Map.of(
+            "card.mustache", "<div>{{<name-link.mustache}}{{/name-link.mustache}}</div>",
+            "row.mustache", "<td>{{<name-link.mustache}}{{/name-link.mustache}}</td>"
+                    + "{{#referrer}}<td>via {{<name-link.mustache}}{{/name-link.mustache}}</td>{{/referrer}}",
+            "name-link.mustache", "<a href=\"mailto:{{email}}\">{{name}}</a>");
+
+    private static final String PARTIAL = "shared.ContactNameLinkHtmlPartial";
+
+    @Test
+    public void testRenderersIncludeOneSharedPartialClass() throws Exception {
+        try (var compilation = Compilation.compile(Map.of("shared.Contact", CONTACT), TEMPLATES).assertSuccess()) {
+            String partial = compilation.generatedSource(PARTIAL);
+            assertNotNull(partial);
+            assertTrue(partial, partial.contains("mailto:"));
+            assertNull(compilation.generatedSource(PARTIAL + "2"));
+
+            String card = compilation.generatedSource("shared.ContactCardRenderer");
+            assertEquals(1, occurrences(card, "ContactNameLinkHtmlPartial.render("));
+            assertFalse(card, card.contains("mailto:"));
+
+            // The partial inside the referrer section renders the referrer, so it is inlined there
+            String row = compilation.generatedSource("shared.ContactRowRenderer");
+            assertEquals(1, occurrences(row, "ContactNameLinkHtmlPartial.render("));
+            assertEquals(1, occurrences(row, "mailto:"));
+
+            Object referrer = compilation.newInstance("shared.Contact", "Tom & Jerry", "tj@example.com", null);
+            Object contact = compilation.newInstance("shared.Contact", "Ann", "ann@example.com", referrer);
+            assertEquals("<div><a href=\"mailto:ann@example.com\">Ann</a></div>",
+                    compilation.render("shared.ContactCardRenderer", contact));
+            assertEquals("<td><a href=\"mailto:ann@example.com\">Ann</a></td>"
+                    + "<td>via <a href=\"mailto:tj@example.com\">Tom &amp; Jerry</a></td>",
+                    compilation.render("shared.ContactRowRenderer", contact));
+        }
+    }
+
+    @Test
+    public void testProfiledRenderersInlinePartial() throws Exception {
+        try (var compilation = Compilation.compile(Map.of("shared.Contact", CONTACT), TEMPLATES, "staticmustache.profile=true")
+                .assertSuccess()) {
+            assertNull(compilation.generatedSource(PARTIAL));
+            assertFalse(compilation.generatedSource("shared.ContactCardRenderer").contains("ContactNameLinkHtmlPartial"));
+            Object contact = compilation.newInstance("shared.Contact", "Ann", "ann@example.com", null);
+            assertEquals("<div><a href=\"mailto:ann@example.com\">Ann</a></div>",
+                    compilation.render("shared.ContactCardRenderer", contact));
+        }
+    }
+
+    private static int occurrences(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + part.length())) {
+            count++;
+        }
+        return count;
+    }
+}
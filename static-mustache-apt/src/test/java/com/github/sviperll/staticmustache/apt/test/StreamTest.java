@@ -0,0 +1,57 @@
+package com.github.sviperll.staticmustache.apt.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.tools.Diagnostic;
+
+import org.junit.Test;
+
+public class StreamTest {
+
+    private static final String RESULTS = """
+            package stream;
+
+            import java.util.Iterator;
+            import java.util.Spliterator;
+            import java.util.stream.Stream;
+
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+            @GenerateRenderableAdapter(template = "results.mustache")
+            public record Results(Stream<String> rows, Iterator<String> names, Spliterator<String> cells, boolean empty) {
+            }
+            """;
+
+    @Test
+    public void testInvertedSectionOverLazySourceIsRejected() throws Exception {
+        for (String name : List.of("rows", "names", "cells")) {
+            String template = "{{#" + name + "}}<p>{{.}}</p>{{/" + name + "}}{{^" + name + "}}none{{/" + name + "}}";
+            try (var compilation = Compilation.compile(Map.of("stream.Results", RESULTS), Map.of("results.mustache", template))) {
+                assertFalse(compilation.success());
+                List<String> errors = compilation.messages(Diagnostic.Kind.ERROR);
+                assertEquals(errors.toString(), 1, errors.size());
+                assertTrue(errors.get(0), errors.get(0).startsWith("results.mustache:1: error: Can't use '" + name + "' field for rendering"));
+                assertTrue(errors.get(0), errors.get(0).contains("a lazy source can't be tested for emptiness without consuming it, "
+                        + "use an Optional or a boolean flag instead"));
+            }
+        }
+    }
+
+    @Test
+    public void testFlagMarksEmptyResults() throws Exception {
+        String template = "{{#rows}}<p>{{.}}</p>{{/rows}}{{#empty}}none{{/empty}}";
+        try (var compilation = Compilation.compile(Map.of("stream.Results", RESULTS), Map.of("results.mustache", template))
+                .assertSuccess()) {
+            assertEquals("none", compilation.render("stream.ResultsRenderer",
+                    compilation.newInstance("stream.Results", Stream.empty(), null, null, true)));
+            assertEquals("<p>a</p>", compilation.render("stream.ResultsRenderer",
+                    compilation.newInstance("stream.Results", Stream.of("a"), null, null, false)));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.sviperll.staticmustache.apt.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+
+import org.junit.Test;
+
+public class TemplatePrefetchTest {
+
+    private static final String PERSON = """
+            package prefetch;
+
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapters;
+
+            @GenerateRenderableAdapters({
+                @GenerateRenderableAdapter(template = "card.mustache", adapterName = "PersonCardRenderer"),
+                @GenerateRenderableAdapter(template = "card.mustache", adapterName = "PersonCardCopyRenderer")
+            })
+            public record Person(String name) {
+            }
+            """;
+
+    private static final String COMPANY = """
+            package prefetch;
+
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+            @GenerateRenderableAdapter(template = "card.mustache")
+            public record Company(String name) {
+            }
+            """;
+
+    private static final String LABEL = """
+            package prefetch;
+
+            import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+            @GenerateRenderableAdapter(template = "label.mustache")
+            public record Label(String name) {
+            }
+            """;
+
+    @Test
+    public void testTemplateSharedByAdaptersOfRound() throws Exception {
+        try (var compilation = Compilation.compile(Map.of("prefetch.Person", PERSON, "prefetch.Company", COMPANY),
+                Map.of("card.mustache", "<div>{{<name.mustache}}{{/name.mustache}}</div>", "name.mustache", "<b>{{name}}</b>"))
+                .assertSuccess()) {
+            assertEquals("<div><b>Ann</b></div>",
+                    compilation.render("prefetch.PersonCardRenderer", compilation.newInstance("prefetch.Person", "Ann")));
+            assertEquals("<div><b>Ann</b></div>",
+                    compilation.render("prefetch.PersonCardCopyRenderer", compilation.newInstance("prefetch.Person", "Ann")));
+            assertEquals("<div><b>ACME</b></div>",
+                    compilation.render("prefetch.CompanyRenderer", compilation.newInstance("prefetch.Company", "ACME")));
+        }
+    }
+
+    @Test
+    public void testSyntaxErrorOfPrefetchedTemplateIsReportedForEveryAdapter() throws Exception {
+        try (var compilation = Compilation.compile(Map.of("prefetch.Person", PERSON, "prefetch.Company", COMPANY, "prefetch.Label", LABEL),
+                Map.of("card.mustache", "<div>{{name}}</div>\n<p>{{#name</p>", "label.mustache", "{{name}}"))) {
+            assertFalse(compilation.success());
+            List<String> errors = compilation.messages(Diagnostic.Kind.ERROR);
+            assertEquals(errors.toString(), 3, errors.size());
+            for (String error : errors) {
+                assertTrue(error, error.startsWith("card.mustache:2: error: Unclosed field at the end of file\n  <p>{{#name</p>\n"));
+            }
+            assertNull(compilation.generatedSource("prefetch.PersonCardRenderer"));
+            assertNull(compilation.generatedSource("prefetch.CompanyRenderer"));
+            assertNotNull(compilation.generatedSource("prefetch.LabelRenderer"));
+        }
+    }
+
+    @Test
+    public void testMissingPartialIsReportedForEveryAdapter() throws Exception {
+        try (var compilation = Compilation.compile(Map.of("prefetch.Person", PERSON, "prefetch.Company", COMPANY),
+                Map.of("card.mustache", "<div>{{<missing.mustache}}{{/missing.mustache}}</div>"))) {
+            assertFalse(compilation.success());
+            List<String> errors = compilation.messages(Diagnostic.Kind.ERROR);
+            assertEquals(errors.toString(), 3, errors.size());
+            for (String error : errors) {
+                assertTrue(error, error.startsWith("card.mustache:1: error: "));
+                assertTrue(error, error.contains("missing.mustache\n  <div>{{<missing.mustache}}"));
+            }
+        }
+    }
+}
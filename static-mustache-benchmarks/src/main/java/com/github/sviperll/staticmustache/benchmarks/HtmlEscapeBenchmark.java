@@ -0,0 +1,95 @@
+package com.github.sviperll.staticmustache.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sviperll.staticmustache.text.formats.Html;
+
+/**
+ * Escaping of long mostly clean text, the common case for user generated content.
+ * <p>
+ * {@code charAtLoop} is the previous one character at a time implementation kept as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlEscapeBenchmark {
+
+    @Param({ "64", "4096" })
+    int length;
+
+    /**
+     * Number of characters between special characters. 0 means the text is clean.
+     */
+    @Param({ "0", "16", "512" })
+    int specialEvery;
+
+    String text;
+    StringBuilder out;
+    Appendable html;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder(length);
+        String words = "The quick brown fox jumps over the lazy dog. ";
+        for (int i = 0; i < length; i++) {
+            if (specialEvery > 0 && i % specialEvery == specialEvery - 1) {
+                sb.append('&');
+            } else {
+                sb.append(words.charAt(i % words.length()));
+            }
+        }
+        text = sb.toString();
+        out = new StringBuilder(length * 2);
+        html = Html.createEscapingAppendable(out);
+    }
+
+    @Benchmark
+    public StringBuilder html() throws IOException {
+        out.setLength(0);
+        html.append(text);
+        return out;
+    }
+
+    @Benchmark
+    public StringBuilder charAtLoop() throws IOException {
+        out.setLength(0);
+        CharSequence csq = text;
+        int start = 0;
+        int end = csq.length();
+        for (int i = start; i < end; i++) {
+            char c = csq.charAt(i);
+            if (c == '&') {
+                out.append(csq, start, i);
+                start = i + 1;
+                out.append("&amp;");
+            } else if (c == '<') {
+                out.append(csq, start, i);
+                start = i + 1;
+                out.append("&lt;");
+            } else if (c == '>') {
+                out.append(csq, start, i);
+                start = i + 1;
+                out.append("&gt;");
+            }
+        }
+        out.append(csq, start, end);
+        return out;
+    }
+
+}
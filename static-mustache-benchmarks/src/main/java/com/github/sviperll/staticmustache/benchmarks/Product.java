@@ -0,0 +1,7 @@
+package com.github.sviperll.staticmustache.benchmarks;
+
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+@GenerateRenderableAdapter(template = "product.mustache")
+public record Product(int id, String name, long price) {
+}
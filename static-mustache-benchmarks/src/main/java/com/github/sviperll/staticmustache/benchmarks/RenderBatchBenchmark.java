@@ -0,0 +1,91 @@
+package com.github.sviperll.staticmustache.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.sviperll.staticmustache.text.formats.Html;
+
+/**
+ * Per item cost of rendering many small models.
+ * <p>
+ * {@code adapterPerItem} renders every item with {@code of(item).render(...)},
+ * {@code renderAll} and {@code renderEach} use the generated batch methods and
+ * {@code handWritten} is the template written out by hand, formatting numbers as the default formatter does,
+ * as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBatchBenchmark {
+
+    static final int ITEMS = 1000;
+
+    List<Product> products;
+    StringBuilder out;
+    Appendable html;
+
+    @Setup
+    public void setup() {
+        products = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            products.add(new Product(i, "Product <" + i + ">", i * 100L));
+        }
+        out = new StringBuilder(ITEMS * 64);
+        html = Html.createEscapingAppendable(out);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public StringBuilder adapterPerItem() throws IOException {
+        out.setLength(0);
+        for (Product product : products) {
+            ProductRenderer.of(product).render(out);
+        }
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public StringBuilder renderAll() throws IOException {
+        out.setLength(0);
+        ProductRenderer.renderAll(products, out);
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void renderEach(Blackhole blackhole) throws IOException {
+        ProductRenderer.renderEach(products, (product, output) -> blackhole.consume(output.length()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public StringBuilder handWritten() throws IOException {
+        out.setLength(0);
+        for (Product product : products) {
+            out.append("<tr><td>").append(Integer.toString(product.id())).append("</td><td>");
+            html.append(product.name());
+            out.append("</td><td>").append(Long.toString(product.price())).append("</td></tr>\n");
+        }
+        return out;
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.github.sviperll.staticmustache.examples;
+
+import java.util.List;
+
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+import com.github.sviperll.staticmustache.GenerateRenderableAdapters;
+
+@GenerateRenderableAdapters({
+    @GenerateRenderableAdapter(template = "base.mustache", adapterName = "BaseArticleRenderer"),
+    @GenerateRenderableAdapter(template = "article.mustache", adapterName = "ArticleRenderer"),
+    @GenerateRenderableAdapter(template = "featured-article.mustache", adapterName = "FeaturedArticleRenderer")
+})
+public record Article(String title, String author, List<String> paragraphs) {
+}
@@ -0,0 +1,11 @@
+package com.github.sviperll.staticmustache.examples;
+
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+import com.github.sviperll.staticmustache.GenerateRenderableAdapters;
+
+@GenerateRenderableAdapters({
+    @GenerateRenderableAdapter(template = "contact-card.mustache", adapterName = "ContactCardRenderer"),
+    @GenerateRenderableAdapter(template = "contact-row.mustache", adapterName = "ContactRowRenderer")
+})
+public record Contact(String name, String email, String phone, Contact referrer) {
+}
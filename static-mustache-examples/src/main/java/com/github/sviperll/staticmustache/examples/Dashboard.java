@@ -0,0 +1,11 @@
+package com.github.sviperll.staticmustache.examples;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+@GenerateRenderableAdapter(template = "dashboard.mustache")
+public record Dashboard(String title, CompletableFuture<String> greeting, Future<List<String>> alerts) {
+}
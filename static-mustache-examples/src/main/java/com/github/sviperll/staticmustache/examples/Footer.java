@@ -0,0 +1,9 @@
+package com.github.sviperll.staticmustache.examples;
+
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+@GenerateRenderableAdapter(template = "footer.mustache")
+public record Footer() {
+    static final String COPYRIGHT = "Snap & Hop <team>";
+    static final int YEAR = 2024;
+}
@@ -0,0 +1,17 @@
+package com.github.sviperll.staticmustache.examples;
+
+import java.io.IOException;
+
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+import com.github.sviperll.staticmustache.spi.AppendableValue;
+
+@GenerateRenderableAdapter(template = "fragment.mustache")
+public record FragmentContainer(StringBuilder builder, CharSequence sequence, Fragment fragment) {
+
+    public record Fragment(String html) implements AppendableValue {
+        @Override
+        public void appendTo(Appendable appendable) throws IOException {
+            appendable.append(html, 0, html.length());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.sviperll.staticmustache.examples;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.github.sviperll.staticmustache.text.formats.TextFormat;
+
+/**
+ * Escapes the special characters of LaTeX, including {@code '_'} that escape free types may contain.
+ */
+@TextFormat
+public final class Latex {
+
+    public static Appendable createEscapingAppendable(Appendable appendable) {
+        return new LatexAppendable(appendable);
+    }
+
+    private Latex() {
+    }
+
+    private static final class LatexAppendable implements Appendable {
+        private final Appendable appendable;
+
+        LatexAppendable(Appendable appendable) {
+            this.appendable = appendable;
+        }
+
+        @Override
+        public Appendable append(@Nullable CharSequence csq) throws IOException {
+            CharSequence s = csq == null ? "null" : csq;
+            return append(s, 0, s.length());
+        }
+
+        @Override
+        public Appendable append(@Nullable CharSequence csq, int start, int end) throws IOException {
+            CharSequence s = csq == null ? "null" : csq;
+            for (int i = start; i < end; i++) {
+                append(s.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            switch (c) {
+                case '_', '#', '$', '%', '&', '{', '}' -> appendable.append('\\').append(c);
+                default -> appendable.append(c);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.sviperll.staticmustache.examples;
+
+import java.util.List;
+
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+import com.github.sviperll.staticmustache.ParallelSection;
+
+@GenerateRenderableAdapter(template = "ledger.mustache")
+public record Ledger(String title, @ParallelSection(chunkSize = 64) List<Entry> entries, @ParallelSection(chunkSize = 4) String[] tags) {
+
+    public record Entry(String name, int amount, List<String> notes) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.sviperll.staticmustache.examples;
+
+import java.util.UUID;
+
+import com.github.sviperll.staticmustache.EscapeFree;
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+import com.github.sviperll.staticmustache.GenerateRenderableAdapters;
+
+@GenerateRenderableAdapters({
+    @GenerateRenderableAdapter(template = "listing.mustache"),
+    @GenerateRenderableAdapter(template = "listing.mustache", templateFormat = Latex.class, adapterName = "LatexListingRenderer")
+})
+public record Listing(long id, int count, UUID uuid, Status status, Label label, Sku sku) {
+
+    public enum Status {
+        ACTIVE,
+        IN_PROGRESS,
+        ARCHIVED
+    }
+
+    public enum Label {
+        NEW;
+
+        @Override
+        public String toString() {
+            return "<new>";
+        }
+    }
+
+    @EscapeFree
+    public record Sku(String code) {
+        @Override
+        public String toString() {
+            return code;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.sviperll.staticmustache.examples;
+
+import java.util.List;
+
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+@GenerateRenderableAdapter(template = "menu.mustache", cached = true)
+public record Menu(String title, List<String> items) {
+}
@@ -0,0 +1,12 @@
+package com.github.sviperll.staticmustache.examples;
+
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+@GenerateRenderableAdapter(template = "primitive-stream.mustache")
+public record PrimitiveStreamContainer(IntStream ids, LongStream sizes, PrimitiveIterator.OfDouble values) {
+
+}
@@ -0,0 +1,16 @@
+package com.github.sviperll.staticmustache.examples;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+@GenerateRenderableAdapter(template = "report.mustache")
+public record Report(String title, boolean showDetails, Supplier<Details> details, IntSupplier total, BooleanSupplier archived,
+        Supplier<Boolean> overdue, Supplier<String[]> attachments) {
+
+    public record Details(String summary, String owner, List<String> tags) {
+    }
+}
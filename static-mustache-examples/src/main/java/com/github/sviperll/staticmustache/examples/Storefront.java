@@ -0,0 +1,12 @@
+package com.github.sviperll.staticmustache.examples;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.github.sviperll.staticmustache.Deferred;
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+@GenerateRenderableAdapter(template = "storefront.mustache")
+public record Storefront(String title, @Deferred CompletableFuture<List<String>> recommendations,
+        @Deferred CompletableFuture<String> banner) {
+}
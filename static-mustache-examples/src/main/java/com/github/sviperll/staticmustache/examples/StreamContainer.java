@@ -0,0 +1,12 @@
+package com.github.sviperll.staticmustache.examples;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
+import com.github.sviperll.staticmustache.GenerateRenderableAdapter;
+
+@GenerateRenderableAdapter(template = "stream.mustache")
+public record StreamContainer(Stream<Post> posts, Iterator<String> names, Spliterator<Integer> numbers) {
+
+}
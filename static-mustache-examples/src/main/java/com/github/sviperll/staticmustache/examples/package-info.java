@@ -1,4 +1,5 @@
-@com.github.sviperll.staticmustache.TemplateFormatterTypes(types= {UUID.class, com.github.sviperll.staticmustache.examples.IdContainer.class})
+@com.github.sviperll.staticmustache.TemplateFormatterTypes(types= {UUID.class, com.github.sviperll.staticmustache.examples.IdContainer.class,
+        com.github.sviperll.staticmustache.examples.Listing.Status.class, com.github.sviperll.staticmustache.examples.Listing.Label.class})
 package com.github.sviperll.staticmustache.examples;
 
 import java.util.UUID;
@@ -0,0 +1,81 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.text.DeferredSections;
+import com.github.sviperll.staticmustache.text.DeferredSections.Fill;
+
+public class DeferredSectionTest {
+
+    private static final Fill FILL = new Fill() {
+        @Override
+        public void placeholder(int id, Appendable unescapedWriter) throws IOException {
+            unescapedWriter.append("[" + id + "]");
+        }
+
+        @Override
+        public void fill(int id, CharSequence content, Appendable unescapedWriter) throws IOException {
+            unescapedWriter.append("{" + id + ":").append(content).append("}");
+        }
+    };
+
+    @Test
+    public void testSlowSectionsAreFilledInAtTheEnd() throws Exception {
+        CompletableFuture<List<String>> recommendations = new CompletableFuture<>();
+        CompletableFuture<String> banner = new CompletableFuture<>();
+        Storefront storefront = new Storefront("A&B", recommendations, banner);
+        StringBuilder out = new StringBuilder();
+        Thread completer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                banner.complete("Sale");
+                Thread.sleep(50);
+                recommendations.complete(List.of("x", "y"));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        completer.start();
+        DeferredSections.render(StorefrontRenderer.of(storefront), out, FILL);
+        completer.join();
+        assertEquals("<h1>A&amp;B</h1>\n<ul>[1]</ul>\n<p>[2]</p>\n<footer>end</footer>\n"
+                + "{2:Sale}{1:<li>x for A&amp;B</li><li>y for A&amp;B</li>}", out.toString());
+    }
+
+    @Test
+    public void testReadyValuesAndRendersOutsideScopeAreNotDeferred() throws Exception {
+        Storefront storefront = new Storefront("t", CompletableFuture.completedFuture(List.of("x")),
+                CompletableFuture.supplyAsync(() -> "b"));
+        String expected = "<h1>t</h1>\n<ul><li>x for t</li></ul>\n<p>b</p>\n<footer>end</footer>\n";
+        assertEquals(expected, StorefrontRenderer.of(storefront).renderString());
+        StringBuilder out = new StringBuilder();
+        DeferredSections.render(StorefrontRenderer.of(new Storefront("t", CompletableFuture.completedFuture(List.of("x")),
+                CompletableFuture.completedFuture("b"))), out, FILL);
+        assertEquals(expected, out.toString());
+    }
+
+    @Test
+    public void testFillInsPrecedeLayoutFooter() throws Exception {
+        CompletableFuture<String> banner = new CompletableFuture<>();
+        Storefront storefront = new Storefront("t", CompletableFuture.completedFuture(List.of()), banner);
+        CompletableFuture.runAsync(() -> banner.complete("late"), CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        StringBuilder out = new StringBuilder();
+        DeferredSections.render(Html5LayoutLayoutable.of(new Html5Layout("Shop")), StorefrontRenderer.of(storefront), out,
+                DeferredSections.HTML);
+        String html = out.toString();
+        int placeholder = html.indexOf("<p><template id=\"deferred-1\"></template></p>");
+        int fill = html.indexOf("<template id=\"deferred-fill-1\">late</template><script>");
+        int footer = html.indexOf("</body>");
+        assertTrue(placeholder > 0);
+        assertTrue(fill > placeholder);
+        assertTrue(footer > fill);
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.text.DeflateOutput;
+import com.github.sviperll.staticmustache.text.StaticTextAppendable;
+
+public class DeflateOutputTest {
+
+    private static final String TERMS = "<p>Terms &amp; conditions apply.</p>\n".repeat(40);
+
+    @Test
+    public void testGzip() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflateOutput out = DeflateOutput.gzip(bytes)) {
+            render(out);
+        }
+        String actual = new String(readAll(new GZIPInputStream(new ByteArrayInputStream(bytes.toByteArray()))), StandardCharsets.UTF_8);
+        assertEquals(render(new StringBuilder()).toString(), actual);
+    }
+
+    @Test
+    public void testZlib() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflateOutput out = DeflateOutput.zlib(bytes)) {
+            render(out);
+            out.flush();
+            render(out);
+        }
+        String actual = new String(readAll(new InflaterInputStream(new ByteArrayInputStream(bytes.toByteArray()))), StandardCharsets.UTF_8);
+        StringBuilder expected = render(new StringBuilder());
+        assertEquals(render(expected).toString(), actual);
+    }
+
+    private static <A extends Appendable> A render(A out) throws IOException {
+        out.append("<h1>été 😀</h1>\n");
+        StaticTextAppendable.appendStatic(out, TERMS);
+        FooterRenderer.of(new Footer()).render(out);
+        MenuRenderer.of(new Menu("Shop", List.of("Books", "Games"))).render(out);
+        StaticTextAppendable.appendStatic(out, TERMS);
+        return out;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+}
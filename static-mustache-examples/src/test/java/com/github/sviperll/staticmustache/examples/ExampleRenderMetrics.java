@@ -0,0 +1,7 @@
+package com.github.sviperll.staticmustache.examples;
+
+import com.github.sviperll.staticmustache.spi.RenderMetrics;
+
+public class ExampleRenderMetrics extends RenderMetrics {
+
+}
@@ -0,0 +1,22 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class FragmentTest {
+
+    @Test
+    public void testCharSequenceAndAppendableValue() throws Exception {
+        var container = new FragmentContainer(new StringBuilder("a < b"), new StringBuilder("c & d"),
+                new FragmentContainer.Fragment("<p>cached</p>"));
+        String actual = FragmentContainerRenderer.of(container).renderString();
+        assertEquals("""
+                <builder>a &lt; b</builder>
+                <sequence>c &amp; d</sequence>
+                <escaped>&lt;p&gt;cached&lt;/p&gt;</escaped>
+                <unescaped><p>cached</p></unescaped>
+                """, actual);
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class FutureTest {
+
+    @Test
+    public void testOutputIsFlushedBeforeWaiting() throws Exception {
+        List<String> flushed = new ArrayList<>();
+        StringWriter writer = new StringWriter() {
+            @Override
+            public void flush() {
+                flushed.add(toString());
+            }
+        };
+        var greeting = CompletableFuture.supplyAsync(() -> "Hello & welcome",
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        var alerts = CompletableFuture.completedFuture(List.of("disk", "cpu"));
+        DashboardRenderer.of(new Dashboard("Status", greeting, alerts)).render(writer);
+        assertEquals("""
+                <h1>Status</h1>
+                <p>Hello &amp; welcome</p>
+                <li>disk</li>
+                <li>cpu</li>
+
+                """, writer.toString());
+        assertEquals(List.of("<h1>Status</h1>\n<p>"), flushed);
+    }
+
+    @Test
+    public void testFailureIsRethrown() throws Exception {
+        var greeting = CompletableFuture.<String>failedFuture(new IllegalStateException("backend down"));
+        var alerts = CompletableFuture.completedFuture(List.<String>of());
+        try {
+            DashboardRenderer.of(new Dashboard("Status", greeting, alerts)).renderString();
+        } catch (IllegalStateException ex) {
+            assertEquals("backend down", ex.getMessage());
+            return;
+        }
+        throw new AssertionError("expected failure");
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.text.DeflateOutput;
+import com.github.sviperll.staticmustache.text.HashingAppendable;
+import com.github.sviperll.staticmustache.text.StaticTextAppendable;
+
+public class HashingAppendableTest {
+
+    private static final String TERMS = "<p>Terms &amp; conditions apply.</p>\n".repeat(10);
+
+    @Test
+    public void testCrcOfRenderedOutput() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        HashingAppendable hashing = new HashingAppendable(sb);
+        render(hashing);
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        CRC32C expected = new CRC32C();
+        expected.update(bytes);
+        assertEquals((int) expected.getValue(), hashing.crc32c());
+        assertEquals(bytes.length, hashing.length());
+        assertEquals(String.format("\"%08x-%x\"", expected.getValue(), bytes.length), hashing.etag());
+    }
+
+    @Test
+    public void testWrapsCompressedOutput() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        HashingAppendable hashing;
+        try (DeflateOutput out = DeflateOutput.gzip(compressed)) {
+            hashing = new HashingAppendable(out);
+            render(hashing);
+        }
+        byte[] bytes = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())).readAllBytes();
+        CRC32C expected = new CRC32C();
+        expected.update(bytes);
+        assertEquals((int) expected.getValue(), hashing.crc32c());
+    }
+
+    private static void render(Appendable out) throws IOException {
+        out.append("<h1>été 😀</h1>\n");
+        StaticTextAppendable.appendStatic(out, TERMS);
+        StaticTextAppendable.appendStatic(out, TERMS);
+        FooterRenderer.of(new Footer()).render(out);
+        MenuRenderer.of(new Menu("Shop", List.of("Books", "Games"))).render(out);
+        StaticTextAppendable.appendStatic(out, TERMS);
+    }
+
+}
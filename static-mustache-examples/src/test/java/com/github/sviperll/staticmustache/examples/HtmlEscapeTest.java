@@ -0,0 +1,48 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.text.formats.Html;
+
+public class HtmlEscapeTest {
+
+    private static final List<String> INPUTS = List.of(
+            "",
+            "plain text",
+            "&",
+            "<>",
+            "&&<<>>",
+            "&leading",
+            "trailing>",
+            "<both&>",
+            "a&<>b",
+            "<p>Tom &amp; Jerry</p>",
+            "&".repeat(70) + "x" + "<".repeat(3));
+
+    @Test
+    public void testStringScanMatchesCharLoop() throws Exception {
+        for (String input : INPUTS) {
+            for (int start = 0; start <= input.length(); start++) {
+                String expected = reference(input.substring(start));
+                StringBuilder string = new StringBuilder();
+                // A String appended up to its end is scanned with indexOf
+                Html.createEscapingAppendable(string).append(input, start, input.length());
+                StringBuilder chars = new StringBuilder();
+                Html.createEscapingAppendable(chars).append(new StringBuilder(input), start, input.length());
+                assertEquals(input + " from " + start, expected, string.toString());
+                assertEquals(input + " from " + start, expected, chars.toString());
+            }
+            StringBuilder whole = new StringBuilder();
+            Html.createEscapingAppendable(whole).append(input);
+            assertEquals(input, reference(input), whole.toString());
+        }
+    }
+
+    private static String reference(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class InheritanceTest {
+
+    private final Article article = new Article("Tips & tricks", "Ann", List.of("One", "Two"));
+
+    @Test
+    public void testBlocksRenderDefaultsWithoutParent() throws Exception {
+        assertEquals("<title>Untitled</title><main><p>No content</p></main><footer>Blog</footer>\n",
+                BaseArticleRenderer.of(article).renderString());
+    }
+
+    @Test
+    public void testChildOverridesBlocksOfParent() throws Exception {
+        assertEquals("<title>Tips &amp; tricks | Blog</title><main><p>One</p><p>Two</p></main><footer>Blog</footer>\n",
+                ArticleRenderer.of(article).renderString());
+    }
+
+    @Test
+    public void testGrandchildOverridesWin() throws Exception {
+        assertEquals("<title>Featured: Tips &amp; tricks</title><main><p>One</p><p>Two</p></main><footer>Ann</footer>\n",
+                FeaturedArticleRenderer.of(article).renderString());
+    }
+}
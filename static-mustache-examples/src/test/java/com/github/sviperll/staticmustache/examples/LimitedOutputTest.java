@@ -0,0 +1,65 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.examples.Ledger.Entry;
+import com.github.sviperll.staticmustache.text.LimitedOutput;
+import com.github.sviperll.staticmustache.text.OutputLimitExceededException;
+import com.github.sviperll.staticmustache.text.RenderFunction;
+
+public class LimitedOutputTest {
+
+    private static RenderFunction ledger(int size) {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry("ü😀" + i, i, List.of("n")));
+        }
+        return LedgerRenderer.of(new Ledger("Title", entries, new String[0]));
+    }
+
+    @Test
+    public void testOutputIsCutAtCharacterLimit() throws Exception {
+        String full = ledger(100).renderString();
+        StringBuilder sb = new StringBuilder();
+        LimitedOutput out = LimitedOutput.chars(sb, 1000);
+        assertTrue(out.renderTruncating(ledger(100)));
+        assertEquals(full.substring(0, 1000), sb.toString());
+        assertEquals(1000, out.length());
+
+        StringBuilder all = new StringBuilder();
+        assertFalse(LimitedOutput.chars(all, full.length()).renderTruncating(ledger(100)));
+        assertEquals(full, all.toString());
+    }
+
+    @Test
+    public void testUtf8LimitNeverSplitsCharacters() throws Exception {
+        String full = ledger(100).renderString();
+        for (int limit : new int[] { 61, 62, 63, 64, 65, 999 }) {
+            StringBuilder sb = new StringBuilder();
+            LimitedOutput out = LimitedOutput.utf8(sb, limit);
+            assertTrue(out.renderTruncating(ledger(100)));
+            String s = sb.toString();
+            assertTrue(full.startsWith(s));
+            int length = s.getBytes(StandardCharsets.UTF_8).length;
+            assertEquals(length, out.length());
+            assertTrue(length <= limit && length > limit - 4);
+            assertFalse(Character.isHighSurrogate(s.charAt(s.length() - 1)));
+        }
+    }
+
+    @Test
+    public void testRenderAbortsWithException() {
+        OutputLimitExceededException ex = assertThrows(OutputLimitExceededException.class,
+                () -> ledger(10_000).render(LimitedOutput.chars(new StringBuilder(), 10)));
+        assertEquals(10, ex.getLimit());
+    }
+}
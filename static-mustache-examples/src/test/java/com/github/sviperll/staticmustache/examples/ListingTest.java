@@ -0,0 +1,27 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class ListingTest {
+
+    @Test
+    public void testEscapeFreeTypes() throws Exception {
+        UUID uuid = UUID.nameUUIDFromBytes("test".getBytes());
+        var listing = new Listing(42L, 7, uuid, Listing.Status.ACTIVE, Listing.Label.NEW, new Listing.Sku("SKU-1"));
+        String actual = ListingRenderer.of(listing).renderString();
+        assertEquals("42 7 " + uuid + " ACTIVE &lt;new&gt; SKU-1\n", actual);
+    }
+
+    @Test
+    public void testCustomFormatEscapesEscapeFreeTypes() throws Exception {
+        UUID uuid = UUID.nameUUIDFromBytes("test".getBytes());
+        var listing = new Listing(-42L, 7, uuid, Listing.Status.IN_PROGRESS, Listing.Label.NEW, new Listing.Sku("SKU_1"));
+        assertEquals("-42 7 " + uuid + " IN_PROGRESS &lt;new&gt; SKU_1\n", ListingRenderer.of(listing).renderString());
+        assertEquals("-42 7 " + uuid + " IN\\_PROGRESS <new> SKU\\_1\n", LatexListingRenderer.of(listing).renderString());
+    }
+
+}
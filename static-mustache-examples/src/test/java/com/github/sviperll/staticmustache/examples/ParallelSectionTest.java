@@ -0,0 +1,169 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.examples.Ledger.Entry;
+import com.github.sviperll.staticmustache.text.ParallelSections;
+
+public class ParallelSectionTest {
+
+    /*
+     * The common pool has no parallelism on a single CPU, so the parallel path is tested in a pool of its own.
+     */
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testChunksAreWrittenInOrder() throws Exception {
+        List<Entry> entries = new ArrayList<>();
+        StringBuilder expected = new StringBuilder("<h1>Q&amp;A</h1>\n");
+        for (int i = 0; i < 1000; i++) {
+            entries.add(new Entry("e<" + i + ">", i, List.of("n" + i, "m" + i)));
+            expected.append("<tr><td>e&lt;").append(i).append("&gt;</td><td>").append(i)
+                    .append("</td><td>n").append(i).append(";m").append(i).append(";</td><td>Q&amp;A</td></tr>\n");
+        }
+        String[] tags = new String[10];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = "t" + i;
+            expected.append("[t").append(i).append("]");
+        }
+        expected.append("\n");
+        assertEquals(expected.toString(), LedgerRenderer.of(new Ledger("Q&A", entries, tags)).renderString());
+    }
+
+    @Test
+    public void testFailureOfChunkIsRethrown() {
+        List<Entry> entries = new AbstractList<>() {
+            @Override
+            public Entry get(int index) {
+                if (index == 700) {
+                    throw new IllegalStateException("broken entry");
+                }
+                return new Entry("e", index, List.of());
+            }
+
+            @Override
+            public int size() {
+                return 1000;
+            }
+        };
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> LedgerRenderer.of(new Ledger("t", entries, new String[0])).renderString());
+        assertEquals("broken entry", ex.getMessage());
+    }
+
+    @Test
+    public void testRendererCalledFromPoolRendersChunksInThatPool() throws Exception {
+        Set<ForkJoinPool> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Entry> entries = new AbstractList<>() {
+            @Override
+            public Entry get(int index) {
+                synchronized (pools) {
+                    pools.add(ForkJoinTask.getPool());
+                }
+                return new Entry("e" + index, index, List.of());
+            }
+
+            @Override
+            public int size() {
+                return 1000;
+            }
+        };
+        String expected = IntStream.range(0, 1000)
+                .mapToObj(i -> "<tr><td>e" + i + "</td><td>" + i + "</td><td></td><td>t</td></tr>\n")
+                .collect(Collectors.joining("", "<h1>t</h1>\n", "\n"));
+        String actual = pool.submit(() -> LedgerRenderer.of(new Ledger("t", entries, new String[0])).renderString()).get();
+        assertEquals(expected, actual);
+        assertEquals(Set.of(pool), pools);
+    }
+
+    @Test
+    public void testChunksRenderConcurrentlyWithinWindowAndReuseBuffers() throws Exception {
+        List<Integer> list = IntStream.range(0, 100).boxed().toList();
+        int window = 2 * pool.getParallelism();
+        CyclicBarrier firstChunks = new CyclicBarrier(pool.getParallelism());
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger appended = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        Set<Appendable> buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+        StringBuilder output = new StringBuilder();
+        Appendable out = new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) {
+                output.append(csq);
+                appended.incrementAndGet();
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                return append(csq.subSequence(start, end));
+            }
+
+            @Override
+            public Appendable append(char c) {
+                return append(String.valueOf(c));
+            }
+        };
+        ParallelSections.render(pool, list, 5, out, (chunk, a) -> {
+            int index = started.incrementAndGet();
+            maxAhead.accumulateAndGet(index - appended.get(), Math::max);
+            synchronized (buffers) {
+                buffers.add(a);
+            }
+            if (chunk.get(0) < 5 * pool.getParallelism()) {
+                try {
+                    // Every thread of the pool renders one of the first chunks at the same time
+                    firstChunks.await(10, TimeUnit.SECONDS);
+                } catch (Exception ex) {
+                    throw new IOException(ex);
+                }
+            }
+            for (Integer i : chunk) {
+                a.append(i.toString()).append(',');
+            }
+        });
+        assertEquals(list.stream().map(i -> i + ",").collect(Collectors.joining()), output.toString());
+        assertEquals(20, appended.get());
+        assertTrue("chunks ahead of output: " + maxAhead.get(), maxAhead.get() <= window);
+        assertEquals(window, buffers.size());
+    }
+
+    @Test
+    public void testChunkFailureIsRethrownFromPool() {
+        IOException failure = new IOException("broken chunk");
+        List<Integer> list = IntStream.range(0, 100).boxed().toList();
+        IOException ex = assertThrows(IOException.class, () -> ParallelSections.render(pool, list, 5, new StringBuilder(), (chunk, a) -> {
+            if (chunk.contains(42)) {
+                throw failure;
+            }
+            a.append(chunk.toString());
+        }));
+        assertSame(failure, ex);
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.examples.Ledger.Entry;
+import com.github.sviperll.staticmustache.spi.RenderInstrumentation;
+import com.github.sviperll.staticmustache.text.RenderBatch;
+import com.github.sviperll.staticmustache.text.RenderCache;
+import com.github.sviperll.staticmustache.text.RenderFunction;
+import com.github.sviperll.staticmustache.text.formats.Html;
+
+public class RenderBatchTest {
+
+    private final RenderCache original = RenderCache.shared();
+
+    @After
+    public void restore() {
+        RenderCache.setShared(original);
+    }
+
+    @Test
+    public void testRenderAllConcatenatesItems() throws Exception {
+        List<Ledger> ledgers = ledgers();
+        StringBuilder expected = new StringBuilder();
+        for (Ledger ledger : ledgers) {
+            expected.append(LedgerRenderer.of(ledger).renderString());
+        }
+        StringBuilder actual = new StringBuilder();
+        LedgerRenderer.renderAll(ledgers, actual);
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    public void testRenderEachPassesEveryItemItsOutput() throws Exception {
+        List<Ledger> ledgers = ledgers();
+        List<Ledger> items = new ArrayList<>();
+        List<String> outputs = new ArrayList<>();
+        LedgerRenderer.renderEach(ledgers, (ledger, output) -> {
+            items.add(ledger);
+            outputs.add(output.toString());
+        });
+        assertEquals(ledgers, items);
+        for (int i = 0; i < ledgers.size(); i++) {
+            assertEquals(LedgerRenderer.of(ledgers.get(i)).renderString(), outputs.get(i));
+        }
+    }
+
+    @Test
+    public void testCachedAdapterRendersThroughCache() throws Exception {
+        RenderCache cache = new RenderCache(4, 1024, null);
+        RenderCache.setShared(cache);
+        Menu menu = new Menu("Shop", List.of("Books & Music"));
+        StringBuilder actual = new StringBuilder();
+        MenuRenderer.renderAll(List.of(menu, menu), actual);
+        String once = MenuRenderer.of(menu).renderString();
+        assertEquals(once + once, actual.toString());
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void testDirectRenderAllEscapesThroughOneWriter() throws Exception {
+        assertNull(RenderInstrumentation.findInstrumentation());
+        List<Appendable> escaped = new ArrayList<>();
+        Function<Appendable, Appendable> escaper = a -> {
+            Appendable writer = Html.createEscapingAppendable(a);
+            escaped.add(writer);
+            return writer;
+        };
+        List<Appendable> writers = new ArrayList<>();
+        List<Appendable> unescapedWriters = new ArrayList<>();
+        RenderBatch<String> batch = RenderBatch.of("item.mustache", RenderBatchTest::unexpectedAdapter, escaper, (item, writer, unescapedWriter) -> {
+            writers.add(writer);
+            unescapedWriters.add(unescapedWriter);
+            return () -> {
+                unescapedWriter.append("<b>");
+                writer.append(item);
+                unescapedWriter.append("</b>");
+            };
+        });
+        StringBuilder out = new StringBuilder();
+        batch.renderAll(List.of("a & b", "<c>", "d"), out);
+        assertEquals("<b>a &amp; b</b><b>&lt;c&gt;</b><b>d</b>", out.toString());
+        assertEquals(1, escaped.size());
+        assertEquals(List.of(escaped.get(0), escaped.get(0), escaped.get(0)), writers);
+        assertEquals(List.of(out, out, out), unescapedWriters);
+    }
+
+    @Test
+    public void testDirectRenderEachResetsBuffer() throws Exception {
+        assertNull(RenderInstrumentation.findInstrumentation());
+        List<Appendable> escaped = new ArrayList<>();
+        Function<Appendable, Appendable> escaper = a -> {
+            Appendable writer = Html.createEscapingAppendable(a);
+            escaped.add(writer);
+            return writer;
+        };
+        RenderBatch<String> batch = RenderBatch.of("item.mustache", RenderBatchTest::unexpectedAdapter, escaper,
+                (item, writer, unescapedWriter) -> () -> writer.append(item));
+        String large = "x".repeat(100 * 1024);
+        List<String> items = List.of("a", "b<", large, "c");
+        List<String> outputs = new ArrayList<>();
+        List<CharSequence> buffers = new ArrayList<>();
+        batch.renderEach(items, (item, output) -> {
+            outputs.add(output.toString());
+            buffers.add(output);
+        });
+        assertEquals(List.of("a", "b&lt;", large, "c"), outputs);
+        assertSame(buffers.get(0), buffers.get(1));
+        assertSame(buffers.get(0), buffers.get(2));
+        // A buffer grown by a large item is not retained
+        assertNotSame(buffers.get(2), buffers.get(3));
+        assertEquals(2, escaped.size());
+    }
+
+    private static RenderFunction unexpectedAdapter(String item) {
+        throw new AssertionError("rendered through the adapter: " + item);
+    }
+
+    private static List<Ledger> ledgers() {
+        List<Ledger> ledgers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ledgers.add(new Ledger("<Ledger " + i + ">", List.of(new Entry("a & b", i, List.of("n"))), new String[] { "t" + i }));
+        }
+        return ledgers;
+    }
+}
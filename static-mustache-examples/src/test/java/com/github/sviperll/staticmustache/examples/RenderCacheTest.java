@@ -0,0 +1,45 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.text.RenderCache;
+
+public class RenderCacheTest {
+
+    private final RenderCache original = RenderCache.shared();
+
+    @After
+    public void restore() {
+        RenderCache.setShared(original);
+    }
+
+    @Test
+    public void testEqualDataIsRenderedOnce() throws Exception {
+        RenderCache cache = new RenderCache(2, 1024, null);
+        RenderCache.setShared(cache);
+        String expected = """
+                <nav>Shop
+                  <a>Books &amp; Music</a>
+                  <a>Games</a>
+                </nav>
+                """;
+        assertEquals(expected, MenuRenderer.of(new Menu("Shop", List.of("Books & Music", "Games"))).renderString());
+        assertEquals(expected, MenuRenderer.of(new Menu("Shop", List.of("Books & Music", "Games"))).renderString());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(expected.length(), cache.weight());
+
+        MenuRenderer.of(new Menu("A", List.of())).renderString();
+        MenuRenderer.of(new Menu("B", List.of())).renderString();
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        MenuRenderer.of(new Menu("Shop", List.of("Books & Music", "Games"))).renderString();
+        assertEquals(4, cache.misses());
+    }
+
+}
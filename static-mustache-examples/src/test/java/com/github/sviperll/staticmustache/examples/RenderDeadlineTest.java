@@ -0,0 +1,68 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.examples.Ledger.Entry;
+import com.github.sviperll.staticmustache.text.RenderCancelledException;
+import com.github.sviperll.staticmustache.text.RenderDeadline;
+
+public class RenderDeadlineTest {
+
+    @Test
+    public void testExpiredDeadlineAbortsBeforeLoop() {
+        Ledger ledger = new Ledger("t", List.of(new Entry("a", 1, List.of())), new String[] { "x" });
+        RenderCancelledException ex = assertThrows(RenderCancelledException.class,
+                () -> RenderDeadline.after(Duration.ZERO).render(LedgerRenderer.of(ledger), new StringBuilder()));
+        assertTrue(ex.isDeadlineExceeded());
+    }
+
+    @Test
+    public void testCancelledRenderStopsWithinCheckInterval() {
+        RenderDeadline deadline = RenderDeadline.cancellable();
+        AtomicInteger count = new AtomicInteger();
+        Iterator<String> names = Stream.generate(() -> {
+            if (count.incrementAndGet() == 100) {
+                deadline.cancel();
+            }
+            return "n";
+        }).iterator();
+        StreamContainer container = new StreamContainer(Stream.empty(), names, Spliterators.emptySpliterator());
+        RenderCancelledException ex = assertThrows(RenderCancelledException.class,
+                () -> deadline.render(StreamContainerRenderer.of(container), new StringBuilder()));
+        assertFalse(ex.isDeadlineExceeded());
+        assertTrue(count.get() <= 100 + RenderDeadline.CHECK_INTERVAL);
+    }
+
+    @Test
+    public void testWaitForValueEndsAtDeadline() {
+        Dashboard dashboard = new Dashboard("t", new CompletableFuture<>(), CompletableFuture.completedFuture(List.of()));
+        long start = System.nanoTime();
+        RenderCancelledException ex = assertThrows(RenderCancelledException.class,
+                () -> RenderDeadline.after(Duration.ofMillis(50)).render(DashboardRenderer.of(dashboard), new StringBuilder()));
+        assertTrue(ex.isDeadlineExceeded());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+    }
+
+    @Test(timeout = 5000)
+    public void testCancelWakesWaitForValue() {
+        Dashboard dashboard = new Dashboard("t", new CompletableFuture<>(), CompletableFuture.completedFuture(List.of()));
+        RenderDeadline deadline = RenderDeadline.cancellable();
+        CompletableFuture.runAsync(deadline::cancel, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        RenderCancelledException ex = assertThrows(RenderCancelledException.class,
+                () -> deadline.render(DashboardRenderer.of(dashboard), new StringBuilder()));
+        assertFalse(ex.isDeadlineExceeded());
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class RenderEventTest {
+
+    @Test
+    public void testRenderEventIsRecorded() throws Exception {
+        UUID uuid = UUID.nameUUIDFromBytes("test".getBytes());
+        var listing = new Listing(42L, 7, uuid, Listing.Status.ACTIVE, Listing.Label.NEW, new Listing.Sku("SKU-1"));
+        String actual;
+        Path file = Files.createTempFile("render", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.snaphop.staticmustache.Render");
+            recording.start();
+            actual = ListingRenderer.of(listing).renderString();
+            recording.stop();
+            recording.dump(file);
+        }
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(1, events.size());
+            RecordedEvent event = events.get(0);
+            assertEquals(ListingRenderer.TEMPLATE, event.getString("template"));
+            assertEquals(ListingRenderer.class.getName(), event.getClass("adapter").getName());
+            assertEquals(actual.length(), event.getLong("length"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
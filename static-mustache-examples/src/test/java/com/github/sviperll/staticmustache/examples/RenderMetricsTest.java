@@ -0,0 +1,33 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.spi.RenderMetrics;
+
+public class RenderMetricsTest {
+
+    @Test
+    public void testRenderIsRecorded() throws Exception {
+        RenderMetrics metrics = RenderMetrics.find();
+        assertNotNull(metrics);
+        metrics.reset();
+        UUID uuid = UUID.nameUUIDFromBytes("test".getBytes());
+        var listing = new Listing(42L, 7, uuid, Listing.Status.ACTIVE, Listing.Label.NEW, new Listing.Sku("SKU-1"));
+        String actual = ListingRenderer.of(listing).renderString();
+        ListingRenderer.of(listing).renderString();
+        var tm = metrics.template(ListingRenderer.TEMPLATE);
+        assertNotNull(tm);
+        assertEquals(2, tm.count());
+        assertEquals(0, tm.errors());
+        assertEquals(2L * actual.length(), tm.characters());
+        assertTrue(tm.percentileNanos(0.99) <= tm.maxNanos());
+        assertTrue(tm.percentileNanos(0.99) > 0);
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.examples.Ledger.Entry;
+import com.github.sviperll.staticmustache.text.RenderFunction;
+import com.github.sviperll.staticmustache.text.RenderPublisher;
+
+public class RenderPublisherTest {
+
+    @Test
+    public void testChunksConcatenateToOutput() throws Exception {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            entries.add(new Entry("ü\uD83D\uDE00" + i, i, List.of()));
+        }
+        RenderFunction rf = LedgerRenderer.of(new Ledger("Title", entries, new String[0]));
+        Recorder recorder = new Recorder();
+        RenderPublisher.of(rf, Runnable::run, 100).subscribe(recorder);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (Object signal = recorder.next(); signal != Recorder.COMPLETE; signal = recorder.next()) {
+            ByteBuffer buffer = (ByteBuffer) signal;
+            assertTrue(buffer.remaining() <= 100);
+            bytes.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        assertEquals(rf.renderString(), bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRenderWaitsForDemand() throws Exception {
+        AtomicInteger written = new AtomicInteger();
+        RenderFunction rf = a -> {
+            for (int i = 0; i < 1000; i++) {
+                a.append("0123456789");
+                written.incrementAndGet();
+            }
+        };
+        Recorder recorder = new Recorder();
+        recorder.requestOnNext = false;
+        RenderPublisher.of(rf, r -> new Thread(r).start(), 50).subscribe(recorder);
+        recorder.subscription.request(1);
+        assertTrue(recorder.next() instanceof ByteBuffer);
+        Thread.sleep(100);
+        assertTrue(written.get() < 1000);
+        recorder.subscription.cancel();
+        assertEquals(null, recorder.signals.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testFailureIsSignalled() throws Exception {
+        Recorder recorder = new Recorder();
+        RenderPublisher.of(a -> {
+            throw new IllegalStateException("broken");
+        }).subscribe(recorder);
+        Object signal = recorder.next();
+        assertTrue(signal instanceof IllegalStateException);
+        assertFalse(recorder.signals.poll(100, TimeUnit.MILLISECONDS) != null);
+    }
+
+    private static class Recorder implements Flow.Subscriber<ByteBuffer> {
+        static final Object COMPLETE = new Object();
+        final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+        boolean requestOnNext = true;
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (requestOnNext) {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            signals.add(item);
+            if (requestOnNext) {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            signals.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            signals.add(COMPLETE);
+        }
+
+        Object next() throws InterruptedException {
+            Object signal = signals.poll(5, TimeUnit.SECONDS);
+            if (signal == null) {
+                throw new AssertionError("no signal");
+            }
+            return signal;
+        }
+    }
+}
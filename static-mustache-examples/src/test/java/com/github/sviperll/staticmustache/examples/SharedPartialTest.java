@@ -0,0 +1,26 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SharedPartialTest {
+
+    private final Contact contact = new Contact("Tom & Jerry", "tj@example.com", "555-0100", null);
+
+    @Test
+    public void testRenderersIncludeSamePartial() throws Exception {
+        assertEquals("<div class=\"card\"><a href=\"mailto:tj@example.com\">Tom &amp; Jerry</a><p>555-0100</p></div>\n",
+                ContactCardRenderer.of(contact).renderString());
+        assertEquals("<tr><td><a href=\"mailto:tj@example.com\">Tom &amp; Jerry</a></td><td>555-0100</td></tr>\n",
+                ContactRowRenderer.of(contact).renderString());
+    }
+
+    @Test
+    public void testPartialInsideSectionRendersSectionData() throws Exception {
+        Contact referred = new Contact("Ann", "ann@example.com", "555-0199", contact);
+        assertEquals("<tr><td><a href=\"mailto:ann@example.com\">Ann</a></td><td>555-0199</td></tr>\n"
+                + "<tr><td>via <a href=\"mailto:tj@example.com\">Tom &amp; Jerry</a></td></tr>\n",
+                ContactRowRenderer.of(referred).renderString());
+    }
+}
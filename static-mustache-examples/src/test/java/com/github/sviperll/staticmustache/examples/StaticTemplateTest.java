@@ -0,0 +1,35 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class StaticTemplateTest {
+
+    @Test
+    public void testStaticTemplateIsPrerendered() throws Exception {
+        String expected = """
+                <footer>
+                  <p>Snap &amp; Hop &lt;team&gt; 2024 "Snap & Hop <team>"</p>
+                  GREETINGS FROM CHILD
+                </footer>
+                """;
+        assertEquals(expected, FooterRenderer.of(new Footer()).renderString());
+        assertEquals(expected, FooterRenderer.STATIC_OUTPUT);
+
+        StringWriter writer = new StringWriter();
+        FooterRenderer.writeTo(writer);
+        assertEquals(expected, writer.toString());
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        FooterRenderer.writeTo(stream);
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), stream.toByteArray());
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), FooterRenderer.staticUtf8());
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class StreamTest {
+
+    @Test
+    public void testStreamIsRenderedAndClosed() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        IdContainer id = new IdContainer(UUID.nameUUIDFromBytes("test".getBytes()));
+        Stream<Post> posts = Stream.of(new Post("Maverick", id), new Post("Goose", id)).onClose(() -> closed.set(true));
+        var container = new StreamContainer(posts, List.of("a", "b").iterator(), List.of(1, 2, 3).spliterator());
+        String actual = StreamContainerRenderer.of(container).renderString();
+        assertTrue(closed.get());
+        assertEquals("""
+                <post>Maverick</post>
+                <post>Goose</post>
+                <name>a</name>
+                <name>b</name>
+                <numbers>1,2,3,</numbers>
+                """.strip(), actual.replaceAll("\\n+", "\n").strip());
+    }
+
+    @Test
+    public void testElementsArePulledAsSectionRenders() throws Exception {
+        StringBuilder out = new StringBuilder();
+        List<String> renderedBeforePost = new ArrayList<>();
+        List<String> renderedBeforeName = new ArrayList<>();
+        IdContainer id = new IdContainer(UUID.nameUUIDFromBytes("test".getBytes()));
+        Stream<Post> posts = Stream.of(new Post("Maverick", id), new Post("Goose", id))
+                .peek(post -> renderedBeforePost.add(out.toString()));
+        Iterator<String> names = List.of("a", "b").iterator();
+        Iterator<String> pulledNames = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return names.hasNext();
+            }
+
+            @Override
+            public String next() {
+                renderedBeforeName.add(out.toString());
+                return names.next();
+            }
+        };
+        StreamContainerRenderer.of(new StreamContainer(posts, pulledNames, List.of(1).spliterator())).render(out);
+        assertEquals(2, renderedBeforePost.size());
+        assertFalse(renderedBeforePost.get(0).contains("<post>"));
+        assertTrue(renderedBeforePost.get(1).contains("<post>Maverick</post>"));
+        assertFalse(renderedBeforePost.get(1).contains("Goose"));
+        assertEquals(2, renderedBeforeName.size());
+        assertFalse(renderedBeforeName.get(0).contains("<name>"));
+        assertTrue(renderedBeforeName.get(1).contains("<name>a</name>"));
+        assertFalse(renderedBeforeName.get(1).contains("<name>b</name>"));
+    }
+
+    @Test
+    public void testEmptyAndNullSourcesRenderNothing() throws Exception {
+        var empty = new StreamContainer(Stream.empty(), List.<String>of().iterator(), List.<Integer>of().spliterator());
+        assertEquals("<numbers></numbers>", StreamContainerRenderer.of(empty).renderString().strip());
+        var missing = new StreamContainer(null, null, null);
+        assertEquals("<numbers></numbers>", StreamContainerRenderer.of(missing).renderString().strip());
+    }
+
+    @Test
+    public void testPrimitiveStreams() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        var container = new PrimitiveStreamContainer(IntStream.range(1, 4).onClose(() -> closed.set(true)),
+                LongStream.of(10L, 20L), DoubleStream.of(0.5).iterator());
+        String actual = PrimitiveStreamContainerRenderer.of(container).renderString();
+        assertTrue(closed.get());
+        assertEquals("""
+                <ids>1,2,3,</ids>
+                <sizes>10,20,</sizes>
+                <values>0.5,</values>
+                """, actual);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.github.sviperll.staticmustache.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import com.github.sviperll.staticmustache.examples.Report.Details;
+
+public class SupplierTest {
+
+    @Test
+    public void testSupplierIsNotCalledWhenSectionIsHidden() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Report report = new Report("Q3", false, details(calls), () -> 42, () -> false, () -> false, () -> new String[0]);
+        assertEquals("""
+                <h1>Q3</h1>
+                <p>Total: 42</p>
+                active
+                on time no attachments
+                """, ReportRenderer.of(report).renderString());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void testSupplierIsCalledOncePerTag() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger archivedCalls = new AtomicInteger();
+        Report report = new Report("Q3", true, details(calls), () -> 42, () -> archivedCalls.incrementAndGet() > 0,
+                () -> null, () -> null);
+        assertEquals("""
+                <h1>Q3</h1>
+                <p>Sales &amp; costs by Ann</p>
+                [a][b]
+                <p>Total: 42</p>
+                archived
+                on time no attachments
+                """, ReportRenderer.of(report).renderString());
+        assertEquals(2, calls.get());
+        assertEquals(2, archivedCalls.get());
+    }
+
+    @Test
+    public void testInvertedSectionCallsSupplierOnce() throws Exception {
+        AtomicInteger overdueCalls = new AtomicInteger();
+        AtomicInteger attachmentsCalls = new AtomicInteger();
+        Supplier<Boolean> overdue = () -> {
+            overdueCalls.incrementAndGet();
+            return true;
+        };
+        Supplier<String[]> attachments = () -> {
+            attachmentsCalls.incrementAndGet();
+            return new String[] { "a.pdf" };
+        };
+        Report report = new Report("Q3", false, details(new AtomicInteger()), () -> 42, () -> false, overdue, attachments);
+        assertEquals("""
+                <h1>Q3</h1>
+                <p>Total: 42</p>
+                active
+                \s
+                """, ReportRenderer.of(report).renderString());
+        assertEquals(1, overdueCalls.get());
+        assertEquals(1, attachmentsCalls.get());
+    }
+
+    private static Supplier<Details> details(AtomicInteger calls) {
+        return () -> {
+            calls.incrementAndGet();
+            return new Details("Sales & costs", "Ann", List.of("a", "b"));
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.sviperll.staticmustache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Renders sections and variables bound to the annotated {@code Future} valued method or field out of order.
+ * <p>
+ * When the document is rendered with {@link com.github.sviperll.staticmustache.text.DeferredSections#render}
+ * and the value is not ready yet, a placeholder is written in place of the section and the rest of the document
+ * is rendered without waiting. The section is rendered once the value is ready and written as a fill-in
+ * at the end of the document, or before the footer of a layout.
+ * Elsewhere, and for inverted sections, the value is awaited in place like any other {@code Future}.
+ * <p>
+ * A deferred section nested in a {@link ParallelSection}, another deferred section or an array section
+ * is awaited in place.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.METHOD, ElementType.FIELD})
+@Documented
+public @interface Deferred {
+}
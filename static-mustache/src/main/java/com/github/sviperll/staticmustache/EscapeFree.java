@@ -0,0 +1,29 @@
+package com.github.sviperll.staticmustache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a value type whose formatted output never contains characters that a
+ * template format would escape (for HTML: '&amp;', '&lt;' and '&gt;').
+ * <p>
+ * Escaped variables (<code>{{var}}</code>) of such types are written directly to the
+ * unescaped writer, skipping the escaping appendable entirely, in formats that allow it with
+ * {@link com.github.sviperll.staticmustache.text.formats.TextFormat#skipsEscapeFree()}
+ * such as {@code Html} and {@code PlainText}.
+ * Primitives (other than {@code char}), their wrappers, {@code UUID} and
+ * enums that do not override {@code toString} are treated as escape free without this annotation.
+ * <p>
+ * Annotated types may be rendered without being listed in {@link TemplateFormatterTypes}.
+ * Note that a custom {@link com.github.sviperll.staticmustache.spi.Formatter} for an
+ * escape free type must keep the promise as its output will not be escaped either.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface EscapeFree {
+
+}
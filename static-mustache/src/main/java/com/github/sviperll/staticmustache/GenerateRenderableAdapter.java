@@ -77,4 +77,38 @@ public @interface GenerateRenderableAdapter {
     String charset() default ":default";
 
     boolean isLayout() default false;
+
+    /**
+     * Caches rendered output in the shared {@link com.github.sviperll.staticmustache.text.RenderCache}.
+     * <p>
+     * Data should be immutable with value based {@code equals} and {@code hashCode}.
+     * Layouts can't be cached.
+     *
+     * @return true if rendered output is cached
+     */
+    boolean cached() default false;
+
+    /**
+     * Budget of the estimated bytecode size of the render method, overrides the
+     * {@code staticmustache.budget.methodSize} processor option for this adapter.
+     *
+     * @return bytes of bytecode or a negative number to use the processor option
+     */
+    int methodSizeBudget() default -1;
+
+    /**
+     * Budget of nested loop sections, overrides the
+     * {@code staticmustache.budget.loopDepth} processor option for this adapter.
+     *
+     * @return number of nested loops or a negative number to use the processor option
+     */
+    int loopDepthBudget() default -1;
+
+    /**
+     * Budget of literal template text, partials included, overrides the
+     * {@code staticmustache.budget.staticOutput} processor option for this adapter.
+     *
+     * @return number of characters or a negative number to use the processor option
+     */
+    int staticOutputBudget() default -1;
 }
@@ -0,0 +1,31 @@
+package com.github.sviperll.staticmustache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Renders sections over the annotated {@code List} or array valued method or field in parallel.
+ * <p>
+ * Elements are split into chunks of {@link #chunkSize()} elements. Each chunk is rendered into its own buffer
+ * in the common {@link java.util.concurrent.ForkJoinPool} and buffers are written out in element order,
+ * so the output is the same as that of a sequential section.
+ * A renderer called from a task of another fork-join pool renders the chunks in that pool instead.
+ * Lists that fit into a single chunk, or that are rendered in a pool of a single thread, are rendered sequentially.
+ * <p>
+ * The section body is run from several threads at once, so the elements and anything the body
+ * refers to have to be safe to read concurrently.
+ * A parallel section nested in another parallel or a {@link Deferred} section, or in an array section,
+ * is rendered sequentially.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.METHOD, ElementType.FIELD})
+@Documented
+public @interface ParallelSection {
+    /**
+     * @return number of elements rendered together in one task
+     */
+    int chunkSize() default 1024;
+}
@@ -0,0 +1,21 @@
+package com.github.sviperll.staticmustache.spi;
+
+import java.io.IOException;
+
+/**
+ * A value that can write its textual form directly to an {@link Appendable}.
+ * <p>
+ * Implement this on value types whose {@code toString} would otherwise copy
+ * a large pre-built representation (for example cached HTML fragments).
+ * Unlike {@link com.github.sviperll.staticmustache.text.RenderFunction} the value
+ * is written to the escaping writer for <code>{{var}}</code> and the unescaped writer
+ * for <code>{{{var}}}</code>, so it is escaped like any other variable.
+ * <p>
+ * Types implementing this interface are allowed in templates without being listed
+ * in {@link com.github.sviperll.staticmustache.TemplateFormatterTypes}.
+ */
+public interface AppendableValue {
+
+    void appendTo(Appendable appendable) throws IOException;
+
+}
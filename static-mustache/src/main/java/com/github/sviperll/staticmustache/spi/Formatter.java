@@ -48,7 +48,55 @@ public interface Formatter {
             if (o == null) {
                 throw new NullPointerException("null at: " + path);
             }
-            a.append(String.valueOf(o));
+            if (o instanceof AppendableValue av) {
+                av.appendTo(a);
+            }
+            else if (o instanceof CharSequence csq) {
+                a.append(csq, 0, csq.length());
+            }
+            else {
+                a.append(String.valueOf(o));
+            }
+            return true;
+        }
+        
+        /*
+         * Primitives are written directly so that they are never boxed.
+         */
+        
+        @Override
+        public boolean format(Appendable a, String path, char c) throws IOException {
+            a.append(c);
+            return true;
+        }
+        
+        @Override
+        public boolean format(Appendable a, String path, short s) throws IOException {
+            a.append(Short.toString(s));
+            return true;
+        }
+        
+        @Override
+        public boolean format(Appendable a, String path, int i) throws IOException {
+            a.append(Integer.toString(i));
+            return true;
+        }
+        
+        @Override
+        public boolean format(Appendable a, String path, long l) throws IOException {
+            a.append(Long.toString(l));
+            return true;
+        }
+        
+        @Override
+        public boolean format(Appendable a, String path, double d) throws IOException {
+            a.append(Double.toString(d));
+            return true;
+        }
+        
+        @Override
+        public boolean format(Appendable a, String path, boolean b) throws IOException {
+            a.append(Boolean.toString(b));
             return true;
         }
     }
@@ -0,0 +1,35 @@
+package com.github.sviperll.staticmustache.spi;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Observes completed renders of generated templates.
+ * <p>
+ * Implementations are discovered once with {@link java.util.ServiceLoader}.
+ * When none are registered templates render directly to the caller's appendable
+ * and pay nothing beyond a single null check.
+ * <p>
+ * Implementations are called on the rendering thread and must be thread safe and cheap,
+ * see {@link RenderMetrics} for a lock free in-memory registry.
+ */
+public interface RenderInstrumentation {
+
+    /**
+     * Called after a template has been rendered, successfully or not.
+     *
+     * @param template template path, the generated {@code TEMPLATE} constant
+     * @param durationNanos wall clock render time as measured by {@link System#nanoTime()}
+     * @param characters number of characters appended to the output. Byte counts depend on the
+     *            charset the caller encodes with and are not known to the renderer.
+     * @param error the exception that aborted rendering or {@code null}
+     */
+    void rendered(String template, long durationNanos, long characters, @Nullable Throwable error);
+
+    /**
+     * @return the registered instrumentation or {@code null} when none is registered
+     */
+    public static @Nullable RenderInstrumentation findInstrumentation() {
+        return RenderInstrumentationResolver.INSTRUMENTATION;
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.github.sviperll.staticmustache.spi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+final class RenderInstrumentationResolver implements RenderInstrumentation {
+
+    static final @Nullable RenderInstrumentation INSTRUMENTATION = load();
+
+    private final List<RenderInstrumentation> instrumentations;
+
+    private RenderInstrumentationResolver(List<RenderInstrumentation> instrumentations) {
+        this.instrumentations = instrumentations;
+    }
+
+    @SuppressWarnings("null")
+    private static @Nullable RenderInstrumentation load() {
+        List<RenderInstrumentation> ris = new ArrayList<>();
+        ServiceLoader.load(RenderInstrumentation.class).forEach(ris::add);
+        if (ris.isEmpty()) {
+            return null;
+        }
+        if (ris.size() == 1) {
+            return ris.get(0);
+        }
+        return new RenderInstrumentationResolver(List.copyOf(ris));
+    }
+
+    static List<RenderInstrumentation> instrumentations() {
+        var ri = INSTRUMENTATION;
+        if (ri == null) {
+            return List.of();
+        }
+        if (ri instanceof RenderInstrumentationResolver r) {
+            return r.instrumentations;
+        }
+        return List.of(ri);
+    }
+
+    @Override
+    public void rendered(String template, long durationNanos, long characters, @Nullable Throwable error) {
+        for (var ri : instrumentations) {
+            ri.rendered(template, durationNanos, characters, error);
+        }
+    }
+
+}
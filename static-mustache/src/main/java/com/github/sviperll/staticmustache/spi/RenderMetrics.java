@@ -0,0 +1,172 @@
+package com.github.sviperll.staticmustache.spi;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Lock free in-memory render statistics per template.
+ * <p>
+ * Register it by listing {@code com.github.sviperll.staticmustache.spi.RenderMetrics} in
+ * {@code META-INF/services/com.github.sviperll.staticmustache.spi.RenderInstrumentation}
+ * and scrape the instance with {@link #find()}. On the module path a provider has to belong to
+ * the module that declares it, so provide an empty subclass from the application module instead.
+ * <p>
+ * Durations are kept in a log-linear histogram (four buckets per power of two)
+ * so percentiles are reported with at most 25% relative error.
+ */
+public class RenderMetrics implements RenderInstrumentation {
+
+    private final ConcurrentMap<String, TemplateMetrics> templates = new ConcurrentHashMap<>();
+
+    @Override
+    public void rendered(String template, long durationNanos, long characters, @Nullable Throwable error) {
+        TemplateMetrics tm = templates.get(template);
+        if (tm == null) {
+            tm = templates.computeIfAbsent(template, TemplateMetrics::new);
+        }
+        tm.record(durationNanos, characters, error != null);
+    }
+
+    public @Nullable TemplateMetrics template(String template) {
+        return templates.get(template);
+    }
+
+    @SuppressWarnings("null")
+    public Collection<TemplateMetrics> templates() {
+        return Collections.unmodifiableCollection(templates.values());
+    }
+
+    public void reset() {
+        templates.clear();
+    }
+
+    /**
+     * @return the {@code RenderMetrics} registered with {@link java.util.ServiceLoader} or {@code null}
+     */
+    public static @Nullable RenderMetrics find() {
+        for (var ri : RenderInstrumentationResolver.instrumentations()) {
+            if (ri instanceof RenderMetrics rm) {
+                return rm;
+            }
+        }
+        return null;
+    }
+
+    public static final class TemplateMetrics {
+
+        private static final int SUB_BUCKET_BITS = 2;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final String template;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder characters = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] histogram = new LongAdder[Long.SIZE * SUB_BUCKETS];
+
+        TemplateMetrics(String template) {
+            this.template = template;
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        void record(long durationNanos, long chars, boolean error) {
+            long nanos = Math.max(0, durationNanos);
+            count.increment();
+            if (error) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            characters.add(chars);
+            maxNanos.accumulate(nanos);
+            histogram[bucket(nanos)].increment();
+        }
+
+        public String template() {
+            return template;
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        public long characters() {
+            return characters.sum();
+        }
+
+        /**
+         * Estimates a render duration percentile.
+         *
+         * @param quantile between 0 and 1, for example {@code 0.99}
+         * @return upper bound of the histogram bucket holding the quantile, 0 when nothing was recorded
+         */
+        public long percentileNanos(double quantile) {
+            long[] counts = new long[histogram.length];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = histogram[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), maxNanos());
+                }
+            }
+            return maxNanos();
+        }
+
+        static int bucket(long nanos) {
+            if (nanos < SUB_BUCKETS) {
+                return (int) nanos;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return exponent * SUB_BUCKETS + sub;
+        }
+
+        static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS;
+            int sub = bucket % SUB_BUCKETS;
+            int shift = exponent - SUB_BUCKET_BITS;
+            long lower = ((long) (SUB_BUCKETS + sub)) << shift;
+            return lower + (1L << shift) - 1;
+        }
+
+        @Override
+        public String toString() {
+            return "TemplateMetrics[template=" + template + ", count=" + count() + ", errors=" + errors()
+                    + ", totalNanos=" + totalNanos() + ", maxNanos=" + maxNanos() + ", characters="
+                    + characters() + "]";
+        }
+    }
+
+}
@@ -20,6 +20,22 @@ public interface RenderService {
         return formatter(path, context, Formatter.DefaultFormatter.INSTANCE);
     }
     
+    /**
+     * Resolves the formatter for primitive values without requiring them to be boxed.
+     * <p>
+     * The default boxes the value and consults {@link #formatter(String, Object, Formatter)}
+     * so existing services still see every value.
+     * Services that do not customize primitives should return {@code previous}
+     * so that primitives are written without boxing.
+     */
+    default Formatter primitiveFormatter(String path, Formatter previous) throws IOException {
+        return (a, p, o) -> formatter(p, o, previous).format(a, p, o);
+    }
+    
+    default Formatter primitiveFormatter(String path) throws IOException {
+        return primitiveFormatter(path, Formatter.DefaultFormatter.INSTANCE);
+    }
+    
     public static RenderService findService() {
         return RenderServiceResolver.INSTANCE;
     }
@@ -49,4 +49,13 @@ enum RenderServiceResolver implements RenderService {
         return current;
     }
 
+    @Override
+    public Formatter primitiveFormatter(String path, Formatter formatter) throws IOException {
+        Formatter current = formatter;
+        for (var rs : Holder.INSTANCE.renderServices) {
+            current = rs.primitiveFormatter(path, current);
+        }
+        return current;
+    }
+
 }
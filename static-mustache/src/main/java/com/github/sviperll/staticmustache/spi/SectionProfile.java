@@ -0,0 +1,149 @@
+package com.github.sviperll.staticmustache.spi;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.sviperll.staticmustache.text.CountingAppendable;
+
+/**
+ * Per-section render statistics collected by generated code compiled with
+ * {@code -Astaticmustache.profile=true}.
+ * <p>
+ * Every section, inverted section and variable of a profiled template registers one profile
+ * with its position in the template file. Section times include nested sections and variables.
+ * Without the processor option no profiling code is generated and this class is never loaded.
+ */
+public final class SectionProfile {
+
+    private static final Queue<SectionProfile> profiles = new ConcurrentLinkedQueue<>();
+
+    private final String template;
+    private final String label;
+    private final String fileName;
+    private final int row;
+    private final int col;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder iterations = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder characters = new LongAdder();
+
+    private SectionProfile(String template, String label, String fileName, int row, int col) {
+        this.template = template;
+        this.label = label;
+        this.fileName = fileName;
+        this.row = row;
+        this.col = col;
+    }
+
+    public static SectionProfile register(String template, String label, String fileName, int row, int col) {
+        var profile = new SectionProfile(template, label, fileName, row, col);
+        profiles.add(profile);
+        return profile;
+    }
+
+    public void record(long durationNanos, long iterationCount, long characterCount) {
+        count.increment();
+        iterations.add(iterationCount);
+        nanos.add(durationNanos);
+        characters.add(characterCount);
+    }
+
+    /**
+     * @return root template the section was compiled into
+     */
+    public String template() {
+        return template;
+    }
+
+    /**
+     * @return the mustache tag, for example <code>{{#items}}</code>
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * @return template file containing the tag, a partial when it differs from {@link #template()}
+     */
+    public String fileName() {
+        return fileName;
+    }
+
+    public int row() {
+        return row;
+    }
+
+    public int col() {
+        return col;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long iterations() {
+        return iterations.sum();
+    }
+
+    public long nanos() {
+        return nanos.sum();
+    }
+
+    public long characters() {
+        return characters.sum();
+    }
+
+    public static List<SectionProfile> profiles() {
+        return List.copyOf(profiles);
+    }
+
+    public static void reset() {
+        for (var p : profiles) {
+            p.count.reset();
+            p.iterations.reset();
+            p.nanos.reset();
+            p.characters.reset();
+        }
+    }
+
+    /**
+     * Formats executed sections, most expensive first, one per line as
+     * {@code file:row:col tag template count iterations nanos characters}.
+     */
+    public static String report() {
+        List<SectionProfile> executed = new ArrayList<>();
+        for (var p : profiles) {
+            if (p.count() > 0) {
+                executed.add(p);
+            }
+        }
+        executed.sort(Comparator.comparingLong(SectionProfile::nanos).reversed());
+        StringBuilder sb = new StringBuilder();
+        for (var p : executed) {
+            sb.append(p).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Wraps the output of a profiled renderer so that sections can measure the characters they write.
+     */
+    public static Appendable counting(Appendable appendable) {
+        return appendable instanceof CountingAppendable ? appendable : new CountingAppendable(appendable);
+    }
+
+    public static long length(Appendable appendable) {
+        return appendable instanceof CountingAppendable c ? c.count() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return fileName + ":" + row + ":" + col + " " + label + " " + template + " count=" + count()
+                + " iterations=" + iterations() + " nanos=" + nanos() + " characters=" + characters();
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Forwards output and counts the characters written.
+ */
+public final class CountingAppendable implements StaticTextAppendable, Flushable {
+    private final Appendable appendable;
+    private long count;
+
+    public CountingAppendable(Appendable appendable) {
+        this.appendable = appendable;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (appendable instanceof Flushable flushable) {
+            flushable.flush();
+        }
+    }
+
+    @Override
+    public void appendStatic(String text) throws IOException {
+        StaticTextAppendable.appendStatic(appendable, text);
+        count += text.length();
+    }
+
+    @Override
+    public Appendable append(@Nullable CharSequence csq) throws IOException {
+        CharSequence s = csq == null ? "null" : csq;
+        appendable.append(s);
+        count += s.length();
+        return this;
+    }
+
+    @Override
+    public Appendable append(@Nullable CharSequence csq, int start, int end) throws IOException {
+        appendable.append(csq, start, end);
+        count += end - start;
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        appendable.append(c);
+        count++;
+        return this;
+    }
+}
@@ -0,0 +1,205 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Out-of-order rendering of {@link com.github.sviperll.staticmustache.Deferred} sections.
+ * <p>
+ * Deferred sections are only deferred inside {@link #render(RenderFunction, Appendable, Fill)}
+ * on the thread that renders the document. Pending sections are rendered in the order their values
+ * become ready. Output is flushed before waiting, so the part of the document rendered so far
+ * reaches the client while the slow values are computed.
+ */
+public final class DeferredSections {
+
+    /**
+     * Renders the body of a deferred section for its value.
+     */
+    public interface DeferredSection<T> {
+        void render(@Nullable T value, Appendable unescapedWriter) throws IOException;
+    }
+
+    /**
+     * Writes placeholders and fill-ins in the way the output format requires.
+     */
+    public interface Fill {
+        void placeholder(int id, Appendable unescapedWriter) throws IOException;
+
+        void fill(int id, CharSequence content, Appendable unescapedWriter) throws IOException;
+    }
+
+    /**
+     * Writes an empty {@code template} element as placeholder, as it is allowed anywhere in a document,
+     * and replaces it with the content of the fill-in by an inline script.
+     */
+    public static final Fill HTML = new Fill() {
+        @Override
+        public void placeholder(int id, Appendable unescapedWriter) throws IOException {
+            unescapedWriter.append("<template id=\"deferred-").append(Integer.toString(id)).append("\"></template>");
+        }
+
+        @Override
+        public void fill(int id, CharSequence content, Appendable unescapedWriter) throws IOException {
+            String n = Integer.toString(id);
+            unescapedWriter.append("<template id=\"deferred-fill-").append(n).append("\">");
+            unescapedWriter.append(content);
+            unescapedWriter.append("</template><script>(function(){var f=document.getElementById(\"deferred-fill-")
+                    .append(n).append("\");document.getElementById(\"deferred-").append(n)
+                    .append("\").replaceWith(f.content);f.remove();})();</script>\n");
+        }
+    };
+
+    private static final ThreadLocal<@Nullable Scope> CURRENT = new ThreadLocal<>();
+
+    private DeferredSections() {
+    }
+
+    /**
+     * Renders a document, writing the fill-ins of deferred sections at its end.
+     */
+    public static void render(RenderFunction document, Appendable out, Fill fill) throws IOException {
+        render(document, null, out, fill);
+    }
+
+    /**
+     * Renders a body within a layout, writing the fill-ins of deferred sections between the body and the footer
+     * of a {@link Layoutable}, or at the end for other layouts.
+     * The header is flushed before the body is rendered.
+     */
+    public static void render(LayoutFunction layout, RenderFunction body, Appendable out, Fill fill) throws IOException {
+        if (! (layout instanceof Layoutable<?> layoutable)) {
+            render(layout.withBody(body), null, out, fill);
+            return;
+        }
+        render(a -> {
+            layoutable.header().render(a);
+            flush(a);
+            body.render(a);
+        }, layoutable.footer(), out, fill);
+    }
+
+    private static void render(RenderFunction document, @Nullable RenderFunction footer, Appendable out, Fill fill)
+            throws IOException {
+        Scope scope = new Scope(fill);
+        Scope previous = CURRENT.get();
+        CURRENT.set(scope);
+        try {
+            document.render(out);
+            scope.resolve(out);
+        } finally {
+            CURRENT.set(previous);
+        }
+        if (footer != null) {
+            footer.render(out);
+        }
+    }
+
+    /**
+     * Called by generated code for a deferred section.
+     */
+    public static <T> void render(@Nullable Future<T> future, Appendable unescapedWriter, DeferredSection<T> section)
+            throws IOException {
+        if (future == null) {
+            return;
+        }
+        Scope scope = CURRENT.get();
+        if (scope == null || future.isDone()) {
+            section.render(Futures.await(future, unescapedWriter), unescapedWriter);
+            return;
+        }
+        scope.defer(future, section, unescapedWriter);
+    }
+
+    /*
+     * Output rendered for a cache has to be complete, so nothing is deferred while it is rendered.
+     */
+    static void renderInPlace(RenderFunction renderFunction, Appendable out) throws IOException {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            renderFunction.render(out);
+            return;
+        }
+        CURRENT.remove();
+        try {
+            renderFunction.render(out);
+        } finally {
+            CURRENT.set(scope);
+        }
+    }
+
+    private static void flush(Appendable out) throws IOException {
+        if (out instanceof Flushable flushable) {
+            flushable.flush();
+        }
+    }
+
+    private static final class Scope {
+        private final Fill fill;
+        private final List<Pending<?>> pending = new ArrayList<>();
+        private int lastId = 0;
+
+        Scope(Fill fill) {
+            this.fill = fill;
+        }
+
+        <T> void defer(Future<T> future, DeferredSection<T> section, Appendable out) throws IOException {
+            int id = ++lastId;
+            fill.placeholder(id, out);
+            pending.add(new Pending<>(id, future, section));
+        }
+
+        void resolve(Appendable out) throws IOException {
+            while (! pending.isEmpty()) {
+                Pending<?> next = next(out);
+                pending.remove(next);
+                StringBuilder content = new StringBuilder();
+                next.render(content);
+                fill.fill(next.id(), content, out);
+            }
+        }
+
+        /*
+         * Waits for any of the completable futures, or for the oldest pending value otherwise.
+         */
+        private Pending<?> next(Appendable out) throws IOException {
+            Pending<?> done = firstDone();
+            if (done != null) {
+                return done;
+            }
+            flush(out);
+            if (pending.stream().allMatch(p -> p.future() instanceof CompletableFuture)) {
+                CompletableFuture<?>[] futures = pending.stream()
+                        .map(p -> (CompletableFuture<?>) p.future())
+                        .toArray(CompletableFuture<?>[]::new);
+                Futures.await(CompletableFuture.anyOf(futures).exceptionally(e -> null), out);
+                done = firstDone();
+                if (done != null) {
+                    return done;
+                }
+            }
+            return pending.get(0);
+        }
+
+        private @Nullable Pending<?> firstDone() {
+            for (Pending<?> p : pending) {
+                if (p.future().isDone()) {
+                    return p;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Pending<T>(int id, Future<T> future, DeferredSection<T> section) {
+        void render(Appendable out) throws IOException {
+            section.render(Futures.await(future, out), out);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.Deflater;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Renders straight into a gzip or zlib ({@code Content-Encoding: deflate}) stream of UTF-8 bytes.
+ * <p>
+ * Long runs of template text are compressed once per JVM and written as precompressed deflate blocks.
+ * Rendered data is compressed as usual. After every precompressed block the deflater is reset
+ * and primed with the block's text as its dictionary, so data can still refer back to the template text
+ * that precedes it. Template text shorter than {@value #MIN_SEGMENT_LENGTH} characters is compressed
+ * together with the data, as a separate block would cost more than it saves.
+ * <p>
+ * {@link #finish()} or {@link #close()} has to be called to complete the stream.
+ * Instances are not thread safe.
+ */
+public final class DeflateOutput implements StaticTextAppendable, Closeable, Flushable {
+
+    static final int MIN_SEGMENT_LENGTH = 256;
+    private static final int MAX_SEGMENTS = 4096;
+    private static final int WINDOW_SIZE = 32 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+    private static final ConcurrentMap<String, Segment> SEGMENTS = new ConcurrentHashMap<>();
+
+    private final OutputStream out;
+    private final boolean gzip;
+    private final Checksum checksum;
+    private final Deflater deflater;
+    private final StringBuilder chars = new StringBuilder();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private long length = 0;
+    private boolean pending = false;
+    private boolean finished = false;
+
+    private DeflateOutput(OutputStream out, boolean gzip, int level) throws IOException {
+        this.out = out;
+        this.gzip = gzip;
+        this.checksum = gzip ? new CRC32() : new Adler32();
+        this.deflater = new Deflater(level, true);
+        if (gzip) {
+            out.write(new byte[] { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff });
+        }
+        else {
+            out.write(new byte[] { 0x78, (byte) 0x9c });
+        }
+    }
+
+    public static DeflateOutput gzip(OutputStream out) throws IOException {
+        return new DeflateOutput(out, true, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public static DeflateOutput zlib(OutputStream out) throws IOException {
+        return new DeflateOutput(out, false, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public void appendStatic(String text) throws IOException {
+        if (text.length() < MIN_SEGMENT_LENGTH) {
+            append(text);
+            return;
+        }
+        Segment segment = segment(text);
+        sync();
+        out.write(segment.compressed());
+        byte[] bytes = segment.bytes();
+        checksum.update(bytes, 0, bytes.length);
+        length += bytes.length;
+        int dictionaryLength = Math.min(bytes.length, WINDOW_SIZE);
+        deflater.reset();
+        deflater.setDictionary(bytes, bytes.length - dictionaryLength, dictionaryLength);
+    }
+
+    @Override
+    public Appendable append(@Nullable CharSequence csq) throws IOException {
+        CharSequence s = csq == null ? "null" : csq;
+        return append(s, 0, s.length());
+    }
+
+    @Override
+    public Appendable append(@Nullable CharSequence csq, int start, int end) throws IOException {
+        chars.append(csq == null ? "null" : csq, start, end);
+        if (chars.length() >= BUFFER_SIZE) {
+            encode(false);
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        chars.append(c);
+        if (chars.length() >= BUFFER_SIZE) {
+            encode(false);
+        }
+        return this;
+    }
+
+    /**
+     * Writes out everything appended so far, so that it can be decompressed by the receiver.
+     */
+    @Override
+    public void flush() throws IOException {
+        sync();
+        out.flush();
+    }
+
+    /**
+     * Completes the stream without closing the underlying output stream.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        encode(true);
+        deflater.finish();
+        while (! deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+        deflater.end();
+        int value = (int) checksum.getValue();
+        if (gzip) {
+            writeIntLE(value);
+            writeIntLE((int) length);
+        }
+        else {
+            out.write(new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value });
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.close();
+    }
+
+    private void writeIntLE(int value) throws IOException {
+        out.write(new byte[] { (byte) value, (byte) (value >>> 8), (byte) (value >>> 16), (byte) (value >>> 24) });
+    }
+
+    /*
+     * A high surrogate at the end of the buffer is kept until its pair arrives.
+     */
+    private void encode(boolean all) throws IOException {
+        int n = chars.length();
+        if (! all && n > 0 && Character.isHighSurrogate(chars.charAt(n - 1))) {
+            n--;
+        }
+        if (n == 0) {
+            return;
+        }
+        byte[] bytes = chars.substring(0, n).getBytes(StandardCharsets.UTF_8);
+        chars.delete(0, n);
+        checksum.update(bytes, 0, bytes.length);
+        length += bytes.length;
+        deflater.setInput(bytes);
+        while (! deflater.needsInput()) {
+            int k = deflater.deflate(buffer, 0, buffer.length, Deflater.NO_FLUSH);
+            out.write(buffer, 0, k);
+        }
+        pending = true;
+    }
+
+    /*
+     * Ends compressed data at a byte boundary so that a precompressed block can follow.
+     */
+    private void sync() throws IOException {
+        encode(true);
+        if (! pending) {
+            return;
+        }
+        int n;
+        do {
+            n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+            out.write(buffer, 0, n);
+        } while (n == buffer.length);
+        pending = false;
+    }
+
+    private static Segment segment(String text) {
+        Segment segment = SEGMENTS.get(text);
+        if (segment == null) {
+            segment = Segment.compress(text);
+            if (SEGMENTS.size() < MAX_SEGMENTS) {
+                SEGMENTS.putIfAbsent(text, segment);
+            }
+        }
+        return segment;
+    }
+
+    private record Segment(byte[] bytes, byte[] compressed) {
+        static Segment compress(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+            try {
+                deflater.setInput(bytes);
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2 + 64);
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+                do {
+                    n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, n);
+                } while (n == buffer.length);
+                return new Segment(bytes, compressed.toByteArray());
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Support for {@code Future} valued fields in generated renderers.
+ */
+public final class Futures {
+
+    /*
+     * A cancelled render notices the cancellation within this time while it waits for a value.
+     */
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private Futures() {
+    }
+
+    /**
+     * Waits for the value of a section or variable.
+     * <p>
+     * When the value is not ready yet, output rendered so far is flushed first
+     * so that it does not wait for the value in a buffer.
+     * A failure of the computation is rethrown as is when it is unchecked or an {@code IOException}.
+     * Waiting ends with {@link RenderCancelledException} when the {@link RenderDeadline} of the render passes
+     * or is cancelled.
+     *
+     * @return value of the future or null for a null future
+     */
+    public static <T> @Nullable T await(@Nullable Future<T> future, Appendable output) throws IOException {
+        if (future == null) {
+            return null;
+        }
+        if (! future.isDone() && output instanceof Flushable flushable) {
+            flushable.flush();
+        }
+        RenderDeadline deadline = RenderDeadline.current();
+        try {
+            if (deadline == null) {
+                return future.get();
+            }
+            while (true) {
+                deadline.checkExpired();
+                try {
+                    return future.get(Math.min(deadline.remainingNanos(), WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException ex) {
+                    if (deadline.remainingNanos() == 0) {
+                        throw new RenderCancelledException("Render deadline exceeded while waiting for a value", true);
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException("Interrupted while waiting for a value to render");
+            ioe.initCause(ex);
+            throw ioe;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException e) {
+                throw e;
+            }
+            if (cause instanceof RuntimeException e) {
+                throw e;
+            }
+            if (cause instanceof Error e) {
+                throw e;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
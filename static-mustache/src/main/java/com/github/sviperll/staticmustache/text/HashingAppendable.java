@@ -0,0 +1,207 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32C;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Computes the CRC32C of the UTF-8 encoded output while passing it through to another appendable,
+ * so an {@code ETag} is known once rendering ends without buffering the output.
+ * <p>
+ * CRCs can be combined: the CRC of two concatenated parts follows from the CRCs of the parts
+ * and the length of the second one. Template text of {@value #MIN_SEGMENT_LENGTH} characters or more
+ * is therefore encoded and checksummed once per JVM and only combined into the running CRC afterwards.
+ * Template text is passed on with {@link StaticTextAppendable#appendStatic(Appendable, String)}
+ * so that an output like {@link DeflateOutput} can be wrapped.
+ * <p>
+ * Instances are not thread safe.
+ */
+public final class HashingAppendable implements StaticTextAppendable, Flushable {
+
+    static final int MIN_SEGMENT_LENGTH = 64;
+    private static final int MAX_SEGMENTS = 4096;
+    private static final int BUFFER_SIZE = 4096;
+    private static final int POLY = 0x82f63b78;
+    private static final int[] X2N = new int[32];
+    private static final ConcurrentMap<String, Segment> SEGMENTS = new ConcurrentHashMap<>();
+
+    static {
+        int p = 1 << 30;
+        X2N[0] = p;
+        for (int n = 1; n < X2N.length; n++) {
+            X2N[n] = p = multiplyModPoly(p, p);
+        }
+    }
+
+    private final Appendable appendable;
+    private final StringBuilder chars = new StringBuilder();
+    private final CRC32C run = new CRC32C();
+    private long runLength = 0;
+    private int crc = 0;
+    private long length = 0;
+
+    public HashingAppendable(Appendable appendable) {
+        this.appendable = appendable;
+    }
+
+    @Override
+    public void appendStatic(String text) throws IOException {
+        StaticTextAppendable.appendStatic(appendable, text);
+        if (text.length() < MIN_SEGMENT_LENGTH) {
+            buffer(text, 0, text.length());
+            return;
+        }
+        Segment segment = segment(text);
+        combineRun();
+        crc = multiplyModPoly(segment.shift(), crc) ^ segment.crc();
+        length += segment.length();
+    }
+
+    @Override
+    public Appendable append(@Nullable CharSequence csq) throws IOException {
+        CharSequence s = csq == null ? "null" : csq;
+        appendable.append(s);
+        buffer(s, 0, s.length());
+        return this;
+    }
+
+    @Override
+    public Appendable append(@Nullable CharSequence csq, int start, int end) throws IOException {
+        CharSequence s = csq == null ? "null" : csq;
+        appendable.append(s, start, end);
+        buffer(s, start, end);
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        appendable.append(c);
+        chars.append(c);
+        if (chars.length() >= BUFFER_SIZE) {
+            encode(false);
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (appendable instanceof Flushable flushable) {
+            flushable.flush();
+        }
+    }
+
+    /**
+     * @return CRC32C of the output so far
+     */
+    public int crc32c() {
+        combineRun();
+        return crc;
+    }
+
+    /**
+     * @return length in bytes of the UTF-8 encoded output so far
+     */
+    public long length() {
+        combineRun();
+        return length;
+    }
+
+    /**
+     * @return strong entity tag made of the CRC32C and length of the output so far
+     */
+    public String etag() {
+        return String.format("\"%08x-%x\"", crc32c(), length());
+    }
+
+    private void buffer(CharSequence s, int start, int end) {
+        chars.append(s, start, end);
+        if (chars.length() >= BUFFER_SIZE) {
+            encode(false);
+        }
+    }
+
+    /*
+     * A high surrogate at the end of the buffer is kept until its pair arrives.
+     */
+    private void encode(boolean all) {
+        int n = chars.length();
+        if (! all && n > 0 && Character.isHighSurrogate(chars.charAt(n - 1))) {
+            n--;
+        }
+        if (n == 0) {
+            return;
+        }
+        byte[] bytes = chars.substring(0, n).getBytes(StandardCharsets.UTF_8);
+        chars.delete(0, n);
+        run.update(bytes);
+        runLength += bytes.length;
+    }
+
+    private void combineRun() {
+        encode(true);
+        if (runLength == 0) {
+            return;
+        }
+        crc = multiplyModPoly(shift(runLength), crc) ^ (int) run.getValue();
+        length += runLength;
+        run.reset();
+        runLength = 0;
+    }
+
+    private static Segment segment(String text) {
+        Segment segment = SEGMENTS.get(text);
+        if (segment == null) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            CRC32C c = new CRC32C();
+            c.update(bytes);
+            segment = new Segment((int) c.getValue(), shift(bytes.length), bytes.length);
+            if (SEGMENTS.size() < MAX_SEGMENTS) {
+                SEGMENTS.putIfAbsent(text, segment);
+            }
+        }
+        return segment;
+    }
+
+    /*
+     * x^(8 * bytes) modulo the CRC polynomial: combining a CRC with the CRC
+     * of the following bytes multiplies it by this value.
+     */
+    private static int shift(long bytes) {
+        int p = 1 << 31;
+        int k = 3;
+        for (long n = bytes; n != 0; n >>>= 1, k++) {
+            if ((n & 1) != 0) {
+                p = multiplyModPoly(X2N[k & 31], p);
+            }
+        }
+        return p;
+    }
+
+    /*
+     * Multiplication of two polynomials modulo the CRC polynomial in reflected bit order.
+     * a must be non-zero.
+     */
+    private static int multiplyModPoly(int a, int b) {
+        int m = 1 << 31;
+        int p = 0;
+        for (;;) {
+            if ((a & m) != 0) {
+                p ^= b;
+                if ((a & (m - 1)) == 0) {
+                    break;
+                }
+            }
+            m >>>= 1;
+            b = (b & 1) != 0 ? (b >>> 1) ^ POLY : b >>> 1;
+        }
+        return p;
+    }
+
+    private record Segment(int crc, int shift, int length) {
+    }
+}
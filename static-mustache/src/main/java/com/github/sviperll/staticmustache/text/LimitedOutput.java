@@ -0,0 +1,178 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Bounds the output of a render in characters or in UTF-8 bytes.
+ * <p>
+ * The length is counted as output passes through, and the append that would cross the limit
+ * writes only the part that fits and throws {@link OutputLimitExceededException}, which stops the render.
+ * {@link #renderTruncating(RenderFunction)} turns that into a truncated result instead.
+ * Template text is passed on with {@link StaticTextAppendable#appendStatic(Appendable, String)}
+ * so that an output like {@link DeflateOutput} can be wrapped.
+ * <p>
+ * Instances are not thread safe.
+ */
+public final class LimitedOutput implements StaticTextAppendable, Flushable {
+
+    private final Appendable appendable;
+    private final long limit;
+    private final boolean bytes;
+    private long length = 0;
+    private boolean truncated = false;
+
+    private LimitedOutput(Appendable appendable, long limit, boolean bytes) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit can't be negative");
+        }
+        this.appendable = appendable;
+        this.limit = limit;
+        this.bytes = bytes;
+    }
+
+    public static LimitedOutput chars(Appendable appendable, long maxChars) {
+        return new LimitedOutput(appendable, maxChars, false);
+    }
+
+    /**
+     * Limits the length of the output once encoded in UTF-8. A character is never split.
+     */
+    public static LimitedOutput utf8(Appendable appendable, long maxBytes) {
+        return new LimitedOutput(appendable, maxBytes, true);
+    }
+
+    /**
+     * Renders into this output.
+     *
+     * @return true when the output was cut at the limit and the render stopped
+     */
+    public boolean renderTruncating(RenderFunction renderFunction) throws IOException {
+        try {
+            renderFunction.render(this);
+        } catch (OutputLimitExceededException ex) {
+            if (! truncated) {
+                throw ex;
+            }
+        }
+        return truncated;
+    }
+
+    /**
+     * @return characters or bytes written so far
+     */
+    public long length() {
+        return length;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public void appendStatic(String text) throws IOException {
+        if (fits(text, 0, text.length())) {
+            StaticTextAppendable.appendStatic(appendable, text);
+        }
+        else {
+            append(text, 0, text.length());
+        }
+    }
+
+    @Override
+    public Appendable append(@Nullable CharSequence csq) throws IOException {
+        CharSequence s = csq == null ? "null" : csq;
+        return append(s, 0, s.length());
+    }
+
+    @Override
+    public Appendable append(@Nullable CharSequence csq, int start, int end) throws IOException {
+        CharSequence s = csq == null ? "null" : csq;
+        if (fits(s, start, end)) {
+            appendable.append(s, start, end);
+            return this;
+        }
+        int fitting = fittingEnd(s, start, end);
+        appendable.append(s, start, fitting);
+        throw exceeded();
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        if (! truncated) {
+            long n = bytes ? utf8Length(c) : 1;
+            if (length + n <= limit) {
+                appendable.append(c);
+                length += n;
+                return this;
+            }
+        }
+        throw exceeded();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (appendable instanceof Flushable flushable) {
+            flushable.flush();
+        }
+    }
+
+    /*
+     * Adds the length of the text when all of it fits.
+     */
+    private boolean fits(CharSequence s, int start, int end) {
+        if (truncated) {
+            return false;
+        }
+        long n;
+        if (! bytes) {
+            n = end - start;
+        }
+        else if (end - start > limit - length) {
+            return false;
+        }
+        else {
+            n = 0;
+            for (int i = start; i < end; i++) {
+                n += utf8Length(s.charAt(i));
+            }
+        }
+        if (length + n > limit) {
+            return false;
+        }
+        length += n;
+        return true;
+    }
+
+    private int fittingEnd(CharSequence s, int start, int end) {
+        if (truncated) {
+            return start;
+        }
+        int i = start;
+        while (i < end) {
+            char c = s.charAt(i);
+            int chars = Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1)) ? 2 : 1;
+            long n = bytes ? (chars == 2 ? 4 : utf8Length(c)) : chars;
+            if (length + n > limit) {
+                break;
+            }
+            length += n;
+            i += chars;
+        }
+        return i;
+    }
+
+    private OutputLimitExceededException exceeded() {
+        truncated = true;
+        return new OutputLimitExceededException(limit, bytes ? "bytes" : "characters");
+    }
+
+    /*
+     * Surrogates count 2 bytes each so that a pair counts 4.
+     */
+    private static int utf8Length(char c) {
+        return c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+    }
+}
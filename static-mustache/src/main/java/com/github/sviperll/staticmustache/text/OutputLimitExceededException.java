@@ -0,0 +1,22 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.IOException;
+
+/**
+ * Thrown from a render whose output would exceed the limit of a {@link LimitedOutput}.
+ */
+public class OutputLimitExceededException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long limit;
+
+    public OutputLimitExceededException(long limit, String unit) {
+        super("Output exceeds " + limit + " " + unit);
+        this.limit = limit;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Support for {@link com.github.sviperll.staticmustache.ParallelSection} in generated renderers.
+ */
+public final class ParallelSections {
+
+    /**
+     * Renders the section body for every element of a chunk.
+     */
+    public interface ChunkRenderer<T> {
+        void render(List<? extends T> chunk, Appendable unescapedWriter) throws IOException;
+    }
+
+    private ParallelSections() {
+    }
+
+    /**
+     * Renders chunks of the list in the fork-join pool of the calling thread,
+     * or in the common pool when not called from a fork-join pool.
+     * <p>
+     * A renderer called from a task of a dedicated pool thus renders its parallel sections in that pool.
+     *
+     * @see #render(ForkJoinPool, List, int, Appendable, ChunkRenderer)
+     */
+    public static <T> void render(List<? extends T> list, int chunkSize, Appendable unescapedWriter,
+            ChunkRenderer<T> renderer) throws IOException {
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        render(pool == null ? ForkJoinPool.commonPool() : pool, list, chunkSize, unescapedWriter, renderer);
+    }
+
+    /**
+     * Renders chunks of the list in the given pool and appends their output in order.
+     * <p>
+     * At most two chunks per thread of the pool are in flight, so the output of a long list
+     * is not buffered as a whole and buffers of chunks already written out are reused.
+     * A failure of any chunk is rethrown as is when it is unchecked or an {@code IOException}.
+     * The list is rendered sequentially when the pool has a single thread.
+     */
+    public static <T> void render(ForkJoinPool pool, List<? extends T> list, int chunkSize, Appendable unescapedWriter,
+            ChunkRenderer<T> renderer) throws IOException {
+        int size = list.size();
+        if (chunkSize <= 0 || size <= chunkSize || pool.getParallelism() <= 1) {
+            renderer.render(list, unescapedWriter);
+            return;
+        }
+        int chunks = (size + chunkSize - 1) / chunkSize;
+        int window = 2 * pool.getParallelism();
+        ArrayDeque<ForkJoinTask<StringBuilder>> inFlight = new ArrayDeque<>(window);
+        ArrayDeque<StringBuilder> buffers = new ArrayDeque<>(window);
+        int next = 0;
+        try {
+            while (next < chunks && inFlight.size() < window) {
+                inFlight.add(fork(list, chunkSize, next++, buffers, pool, renderer));
+            }
+            while (! inFlight.isEmpty()) {
+                StringBuilder buffer = await(inFlight.poll());
+                unescapedWriter.append(buffer);
+                buffer.setLength(0);
+                buffers.add(buffer);
+                if (next < chunks) {
+                    inFlight.add(fork(list, chunkSize, next++, buffers, pool, renderer));
+                }
+            }
+        } finally {
+            for (ForkJoinTask<StringBuilder> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private static <T> ForkJoinTask<StringBuilder> fork(List<? extends T> list, int chunkSize, int index,
+            ArrayDeque<StringBuilder> buffers, ForkJoinPool pool, ChunkRenderer<T> renderer) {
+        int from = index * chunkSize;
+        List<? extends T> chunk = list.subList(from, Math.min(list.size(), from + chunkSize));
+        StringBuilder pooled = buffers.poll();
+        StringBuilder buffer = pooled == null ? new StringBuilder() : pooled;
+        RenderDeadline deadline = RenderDeadline.current();
+        return pool.submit(() -> {
+            try {
+                RenderDeadline.run(deadline, a -> renderer.render(chunk, a), buffer);
+            } catch (IOException ex) {
+                throw new ChunkIOException(ex);
+            }
+            return buffer;
+        });
+    }
+
+    private static StringBuilder await(ForkJoinTask<StringBuilder> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException("Interrupted while rendering a parallel section");
+            ioe.initCause(ex);
+            throw ioe;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            for (Throwable t = cause; t != null; t = t.getCause()) {
+                if (t instanceof ChunkIOException e) {
+                    throw e.getCause();
+                }
+            }
+            if (cause instanceof IOException e) {
+                throw e;
+            }
+            if (cause instanceof RuntimeException e) {
+                throw e;
+            }
+            if (cause instanceof Error e) {
+                throw e;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /*
+     * Carries an IOException out of a task, since the pool wraps checked exceptions of a task
+     * into a RuntimeException of its own.
+     */
+    private static final class ChunkIOException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ChunkIOException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.github.sviperll.staticmustache.spi.RenderInstrumentation;
+import com.github.sviperll.staticmustache.spi.RenderService;
+
+/**
+ * Renders many models with one template, used by the generated {@code renderAll} and {@code renderEach} methods.
+ * <p>
+ * The render service, the instrumentation and the escaping writer are looked up once per batch
+ * and every item is rendered straight by its renderer definition without an adapter.
+ * {@link RenderService#renderer(String, Object, RenderFunction)} is still consulted for every item.
+ * When instrumentation or the JFR render event is enabled, or the adapter is cached or profiled,
+ * every item is rendered through its adapter as with {@code of(data).render(...)}.
+ *
+ * @param <T> type of the model
+ */
+public final class RenderBatch<T> {
+
+    static final int INITIAL_CAPACITY = 1024;
+    static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final String template;
+    private final Function<? super T, ? extends RenderFunction> adapter;
+    private final Function<Appendable, Appendable> escaper;
+    private final @Nullable RendererFactory<T> factory;
+
+    private RenderBatch(String template, Function<? super T, ? extends RenderFunction> adapter,
+            Function<Appendable, Appendable> escaper, @Nullable RendererFactory<T> factory) {
+        this.template = template;
+        this.adapter = adapter;
+        this.escaper = escaper;
+        this.factory = factory;
+    }
+
+    /**
+     * @param factory creates the renderer definition of an item or null to always render through the adapter
+     */
+    public static <T> RenderBatch<T> of(String template, Function<? super T, ? extends RenderFunction> adapter,
+            Function<Appendable, Appendable> escaper, @Nullable RendererFactory<T> factory) {
+        return new RenderBatch<>(template, adapter, escaper, factory);
+    }
+
+    /**
+     * Renders every item one after another to the appendable.
+     */
+    public void renderAll(Iterable<? extends T> items, Appendable unescapedWriter) throws IOException {
+        if (! isDirect()) {
+            for (T item : items) {
+                adapter.apply(item).render(unescapedWriter);
+            }
+            return;
+        }
+        RenderService rs = RenderService.findService();
+        Appendable writer = escaper.apply(unescapedWriter);
+        for (T item : items) {
+            render(rs, item, writer, unescapedWriter);
+        }
+    }
+
+    /**
+     * Renders every item into a buffer that is reused for the next item and passes it to the consumer.
+     * <p>
+     * The output is only valid until the consumer returns.
+     */
+    public void renderEach(Iterable<? extends T> items, ItemConsumer<? super T> consumer) throws IOException {
+        StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+        boolean direct = isDirect();
+        RenderService rs = RenderService.findService();
+        Appendable writer = escaper.apply(buffer);
+        for (T item : items) {
+            buffer.setLength(0);
+            if (direct) {
+                render(rs, item, writer, buffer);
+            }
+            else {
+                adapter.apply(item).render(buffer);
+            }
+            consumer.accept(item, buffer);
+            if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                buffer = new StringBuilder(INITIAL_CAPACITY);
+                writer = escaper.apply(buffer);
+            }
+        }
+    }
+
+    private boolean isDirect() {
+        return factory != null && RenderInstrumentation.findInstrumentation() == null && ! RenderEvents.isEnabled();
+    }
+
+    private void render(RenderService rs, T item, Appendable writer, Appendable unescapedWriter) throws IOException {
+        RendererFactory<T> f = Objects.requireNonNull(factory);
+        RenderFunction direct = a -> f.create(item, a == unescapedWriter ? writer : escaper.apply(a), a).render();
+        rs.renderer(template, item, direct).render(unescapedWriter);
+    }
+
+    public interface RendererFactory<T> {
+        RendererDefinition create(T data, Appendable writer, Appendable unescapedWriter);
+    }
+
+    public interface ItemConsumer<T> {
+        void accept(T item, CharSequence output) throws IOException;
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Bounded cache of rendered output for adapters generated with
+ * {@code @GenerateRenderableAdapter(cached = true)}.
+ * <p>
+ * Output is keyed by the adapter class and its data, so the data should be immutable
+ * with value based {@code equals} and {@code hashCode} (records are) or implement {@link Keyed}.
+ * A cached adapter used as a section value caches just that section.
+ * <p>
+ * Entries are evicted least recently used first once either the number of entries
+ * or the total number of cached characters exceeds its bound, and after the time to live if one is set.
+ * Output of a render that fails is never cached.
+ */
+public final class RenderCache {
+
+    /**
+     * Data that supplies its own cache key instead of being the key itself.
+     */
+    public interface Keyed {
+        Object renderCacheKey();
+    }
+
+    private static volatile RenderCache shared = new RenderCache(1024, 4L * 1024 * 1024, null);
+
+    private final int maximumSize;
+    private final long maximumWeight;
+    private final long timeToLiveNanos;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize maximum number of cached outputs
+     * @param maximumWeight maximum number of cached characters
+     * @param timeToLive how long an output is cached or null to keep it until evicted
+     */
+    public RenderCache(int maximumSize, long maximumWeight, @Nullable Duration timeToLive) {
+        if (maximumSize < 0 || maximumWeight < 0) {
+            throw new IllegalArgumentException("cache bounds can't be negative");
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.timeToLiveNanos = timeToLive == null ? 0 : timeToLive.toNanos();
+    }
+
+    /**
+     * @return the cache used by generated adapters
+     */
+    public static RenderCache shared() {
+        return shared;
+    }
+
+    public static void setShared(RenderCache cache) {
+        shared = Objects.requireNonNull(cache);
+    }
+
+    RenderFunction cached(Class<?> adapter, Object data, RenderFunction renderFunction) {
+        Object k = data instanceof Keyed keyed ? keyed.renderCacheKey() : data;
+        Key key = new Key(adapter, k);
+        return (a) -> {
+            String output = get(key);
+            if (output == null) {
+                StringBuilder sb = new StringBuilder();
+                DeferredSections.renderInPlace(renderFunction, sb);
+                output = sb.toString();
+                put(key, output);
+            }
+            a.append(output);
+        };
+    }
+
+    private synchronized @Nullable String get(Key key) {
+        Entry e = entries.get(key);
+        if (e != null && timeToLiveNanos > 0 && System.nanoTime() - e.created() > timeToLiveNanos) {
+            remove(key);
+            e = null;
+        }
+        if (e == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return e.output();
+    }
+
+    private synchronized void put(Key key, String output) {
+        if (output.length() > maximumWeight) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(output, System.nanoTime()));
+        if (previous != null) {
+            weight -= previous.output().length();
+        }
+        weight += output.length();
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > maximumSize || weight > maximumWeight) && it.hasNext()) {
+            weight -= it.next().getValue().output().length();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(Key key) {
+        Entry e = entries.remove(key);
+        if (e != null) {
+            weight -= e.output().length();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return number of cached characters
+     */
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    private record Key(Class<?> adapter, Object data) {
+    }
+
+    private record Entry(String output, long created) {
+    }
+}
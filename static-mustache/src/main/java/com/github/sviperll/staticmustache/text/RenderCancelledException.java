@@ -0,0 +1,25 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown from a render that ran past its {@link RenderDeadline} or whose deadline was cancelled.
+ */
+public class RenderCancelledException extends InterruptedIOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean deadlineExceeded;
+
+    public RenderCancelledException(String message, boolean deadlineExceeded) {
+        super(message);
+        this.deadlineExceeded = deadlineExceeded;
+    }
+
+    /**
+     * @return true when the deadline passed and false when the render was cancelled
+     */
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+}
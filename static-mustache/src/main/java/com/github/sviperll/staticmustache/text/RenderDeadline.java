@@ -0,0 +1,102 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Deadline and cancellation token for renders run with {@link #render(RenderFunction, Appendable)}.
+ * <p>
+ * Generated renderers check the deadline of the current thread when a loop section starts,
+ * every {@value #CHECK_INTERVAL} iterations and when they wait for a {@code Future} value,
+ * and abort with {@link RenderCancelledException}. Parallel sections carry the deadline to their workers.
+ * Checks are cooperative: a single slow getter or formatter is not interrupted.
+ */
+public final class RenderDeadline {
+
+    /**
+     * Number of loop iterations between checks, a power of two.
+     */
+    public static final int CHECK_INTERVAL = 64;
+
+    private static final ThreadLocal<@Nullable RenderDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final boolean timed;
+    private volatile boolean cancelled = false;
+
+    private RenderDeadline(long deadlineNanos, boolean timed) {
+        this.deadlineNanos = deadlineNanos;
+        this.timed = timed;
+    }
+
+    public static RenderDeadline after(Duration timeout) {
+        return new RenderDeadline(System.nanoTime() + timeout.toNanos(), true);
+    }
+
+    /**
+     * @return deadline that never passes but can be cancelled
+     */
+    public static RenderDeadline cancellable() {
+        return new RenderDeadline(0, false);
+    }
+
+    /**
+     * Makes renders using this deadline abort at their next check. Can be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isExpired() {
+        return cancelled || timed && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * @return nanoseconds left or {@code Long.MAX_VALUE} without a time limit
+     */
+    public long remainingNanos() {
+        return timed ? Math.max(0, deadlineNanos - System.nanoTime()) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Renders with this deadline as the deadline of the current thread.
+     */
+    public void render(RenderFunction renderFunction, Appendable out) throws IOException {
+        run(this, renderFunction, out);
+    }
+
+    /**
+     * Called by generated code.
+     */
+    public static void check() throws RenderCancelledException {
+        RenderDeadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.checkExpired();
+        }
+    }
+
+    void checkExpired() throws RenderCancelledException {
+        if (cancelled) {
+            throw new RenderCancelledException("Render cancelled", false);
+        }
+        if (timed && System.nanoTime() - deadlineNanos >= 0) {
+            throw new RenderCancelledException("Render deadline exceeded", true);
+        }
+    }
+
+    static @Nullable RenderDeadline current() {
+        return CURRENT.get();
+    }
+
+    static void run(@Nullable RenderDeadline deadline, RenderFunction renderFunction, Appendable out) throws IOException {
+        RenderDeadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        try {
+            renderFunction.render(out);
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
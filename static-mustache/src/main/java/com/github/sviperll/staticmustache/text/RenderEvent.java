@@ -0,0 +1,39 @@
+package com.github.sviperll.staticmustache.text;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a single render of a generated template.
+ * <p>
+ * Disabled by default. Enable {@value #NAME} in a JFR settings file or with
+ * {@code jdk.jfr.Recording.enable}. When the event is disabled the JIT removes the event allocation
+ * and templates are rendered without counting output.
+ * Only used through {@link RenderEvents}, as the {@code jdk.jfr} module is optional.
+ */
+@Name(RenderEvent.NAME)
+@Label("Template Render")
+@Category("Static Mustache")
+@Description("Rendering of a generated template")
+@Enabled(false)
+@StackTrace(false)
+final class RenderEvent extends Event {
+
+    static final String NAME = "com.snaphop.staticmustache.Render";
+
+    @Label("Template")
+    String template;
+
+    @Label("Adapter")
+    Class<?> adapter;
+
+    @Label("Output Length")
+    @Description("Number of characters appended to the output")
+    long length;
+
+}
@@ -0,0 +1,61 @@
+package com.github.sviperll.staticmustache.text;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Flight recorder events of renders, when the {@code jdk.jfr} module is present.
+ * <p>
+ * The runtime only reads {@code jdk.jfr} optionally so it works in images without it.
+ * This is the only class that refers to {@link RenderEvent} and it does so through a nested class
+ * that is not loaded unless the module is present.
+ */
+final class RenderEvents {
+
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    private RenderEvents() {
+    }
+
+    /**
+     * @return started event to pass to {@link #end} or null when the event is disabled or JFR is missing
+     */
+    static @Nullable Object begin() {
+        return AVAILABLE ? Jfr.begin() : null;
+    }
+
+    static void end(@Nullable Object event, String template, Class<?> adapter, long length) {
+        if (event != null) {
+            Jfr.end(event, template, adapter, length);
+        }
+    }
+
+    static boolean isEnabled() {
+        return AVAILABLE && Jfr.isEnabled();
+    }
+
+    private static final class Jfr {
+        static @Nullable Object begin() {
+            RenderEvent event = new RenderEvent();
+            if (! event.isEnabled()) {
+                return null;
+            }
+            event.begin();
+            return event;
+        }
+
+        static void end(Object started, String template, Class<?> adapter, long length) {
+            RenderEvent event = (RenderEvent) started;
+            event.end();
+            if (event.shouldCommit()) {
+                event.template = template;
+                event.adapter = adapter;
+                event.length = length;
+                event.commit();
+            }
+        }
+
+        static boolean isEnabled() {
+            return new RenderEvent().isEnabled();
+        }
+    }
+}
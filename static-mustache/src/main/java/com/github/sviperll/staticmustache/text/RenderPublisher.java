@@ -0,0 +1,264 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Publishes the UTF-8 encoded output of a render function as {@code ByteBuffer} chunks
+ * that honour the demand of the subscriber.
+ * <p>
+ * Every subscription renders anew on a thread of the executor. Output is emitted in chunks of
+ * the chunk size in bytes, and the render is suspended when a chunk is ready and the subscriber
+ * has not requested it yet, so output is never buffered beyond one chunk.
+ * A render that flushes its output, as it does before waiting for a {@code Future} value,
+ * emits the bytes it has so far as a shorter chunk.
+ * <p>
+ * Cancelling the subscription aborts the render when it writes its next chunk.
+ * A failed render is signalled with {@code onError}.
+ * On Java 21 and later a virtual thread per task executor makes a suspended render cheap.
+ */
+public final class RenderPublisher implements Flow.Publisher<ByteBuffer> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final RenderFunction renderFunction;
+    private final Executor executor;
+    private final int chunkSize;
+
+    private RenderPublisher(RenderFunction renderFunction, Executor executor, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunk size should be positive");
+        }
+        this.renderFunction = Objects.requireNonNull(renderFunction);
+        this.executor = Objects.requireNonNull(executor);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Renders on daemon threads of a shared cached thread pool in chunks of {@value #DEFAULT_CHUNK_SIZE} bytes.
+     */
+    public static RenderPublisher of(RenderFunction renderFunction) {
+        return new RenderPublisher(renderFunction, DefaultExecutor.EXECUTOR, DEFAULT_CHUNK_SIZE);
+    }
+
+    public static RenderPublisher of(RenderFunction renderFunction, Executor executor, int chunkSize) {
+        return new RenderPublisher(renderFunction, executor, chunkSize);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        RenderSubscription subscription = new RenderSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        executor.execute(subscription::run);
+    }
+
+    /*
+     * Signals to the subscriber are only sent from the rendering thread so they are serial.
+     */
+    private final class RenderSubscription implements Flow.Subscription, Appendable, Flushable {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition demanded = lock.newCondition();
+        private long demand = 0;
+        private boolean cancelled = false;
+        private @Nullable Throwable error = null;
+        private byte[] chunk = new byte[chunkSize];
+        private int length = 0;
+        private char highSurrogate = 0;
+
+        RenderSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            lock.lock();
+            try {
+                if (n <= 0) {
+                    error = new IllegalArgumentException("non-positive request: " + n);
+                    cancelled = true;
+                }
+                else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+                demanded.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                demanded.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void run() {
+            try {
+                renderFunction.render(this);
+                if (highSurrogate != 0) {
+                    highSurrogate = 0;
+                    put('?');
+                }
+                flush();
+                if (! isCancelled()) {
+                    subscriber.onComplete();
+                }
+            } catch (IOException | RuntimeException ex) {
+                Throwable e = failure(ex);
+                if (e != null) {
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        private boolean isCancelled() {
+            lock.lock();
+            try {
+                return cancelled;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /*
+         * A cancelled render ends silently unless the cancellation was caused by an invalid request.
+         */
+        private @Nullable Throwable failure(Exception ex) {
+            lock.lock();
+            try {
+                if (! cancelled) {
+                    cancelled = true;
+                    return ex;
+                }
+                return error;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Appendable append(@Nullable CharSequence csq) throws IOException {
+            CharSequence s = csq == null ? "null" : csq;
+            return append(s, 0, s.length());
+        }
+
+        @Override
+        public Appendable append(@Nullable CharSequence csq, int start, int end) throws IOException {
+            CharSequence s = csq == null ? "null" : csq;
+            for (int i = start; i < end; i++) {
+                append(s.charAt(i));
+            }
+            return this;
+        }
+
+        /*
+         * Encodes UTF-8 by hand so that nothing is buffered besides the chunk.
+         * Unpaired surrogates become '?' as with String.getBytes.
+         */
+        @Override
+        public Appendable append(char c) throws IOException {
+            if (highSurrogate != 0) {
+                char high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(high, c);
+                    put(0xf0 | (codePoint >> 18));
+                    put(0x80 | ((codePoint >> 12) & 0x3f));
+                    put(0x80 | ((codePoint >> 6) & 0x3f));
+                    put(0x80 | (codePoint & 0x3f));
+                    return this;
+                }
+                put('?');
+            }
+            if (c < 0x80) {
+                put(c);
+            }
+            else if (c < 0x800) {
+                put(0xc0 | (c >> 6));
+                put(0x80 | (c & 0x3f));
+            }
+            else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            }
+            else if (Character.isLowSurrogate(c)) {
+                put('?');
+            }
+            else {
+                put(0xe0 | (c >> 12));
+                put(0x80 | ((c >> 6) & 0x3f));
+                put(0x80 | (c & 0x3f));
+            }
+            return this;
+        }
+
+        private void put(int b) throws IOException {
+            chunk[length++] = (byte) b;
+            if (length == chunk.length) {
+                emit();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (length > 0) {
+                emit();
+            }
+        }
+
+        private void emit() throws IOException {
+            lock.lock();
+            try {
+                while (demand == 0 && ! cancelled) {
+                    demanded.await();
+                }
+                if (cancelled) {
+                    throw new IOException("subscription cancelled");
+                }
+                demand--;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException ioe = new InterruptedIOException("Interrupted while waiting for demand");
+                ioe.initCause(ex);
+                throw ioe;
+            } finally {
+                lock.unlock();
+            }
+            ByteBuffer buffer;
+            if (length == chunk.length) {
+                buffer = ByteBuffer.wrap(chunk);
+                chunk = new byte[chunkSize];
+            }
+            else {
+                buffer = ByteBuffer.wrap(Arrays.copyOf(chunk, length));
+            }
+            length = 0;
+            subscriber.onNext(buffer);
+        }
+    }
+
+    private static final class DefaultExecutor {
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "static-mustache-render-publisher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
@@ -31,6 +31,9 @@ package com.github.sviperll.staticmustache.text;
 
 import java.io.IOException;
 
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.github.sviperll.staticmustache.spi.RenderInstrumentation;
 import com.github.sviperll.staticmustache.spi.RenderService;
 
 /**
@@ -60,6 +63,13 @@ public abstract class Renderable<T> implements RenderFunction {
     
     public abstract Object getContext();
     
+    /**
+     * @return key of this output in the {@link RenderCache} or null if output is not cached
+     */
+    protected @Nullable Object getCacheKey() {
+        return null;
+    }
+    
     @Override
     public final void render(Appendable a) throws IOException {
         RenderService rs = RenderService.findService();
@@ -67,6 +77,30 @@ public abstract class Renderable<T> implements RenderFunction {
             var r = createRenderer(writer);
             r.render();
         });
-        rf.render(a);
+        Object cacheKey = getCacheKey();
+        if (cacheKey != null) {
+            rf = RenderCache.shared().cached(getClass(), cacheKey, rf);
+        }
+        RenderInstrumentation ri = RenderInstrumentation.findInstrumentation();
+        @Nullable Object event = RenderEvents.begin();
+        if (ri == null && event == null) {
+            rf.render(a);
+            return;
+        }
+        var counting = new CountingAppendable(a);
+        @Nullable Throwable error = null;
+        long start = System.nanoTime();
+        try {
+            rf.render(counting);
+        } catch (IOException | RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - start;
+            RenderEvents.end(event, getTemplate(), getClass(), counting.count());
+            if (ri != null) {
+                ri.rendered(getTemplate(), duration, counting.count(), error);
+            }
+        }
     }
 }
@@ -47,8 +47,41 @@ public interface RendererDefinition extends Formatter {
         return definition;
     }
     
+    /**
+     * Appends template text.
+     *
+     * @see StaticTextAppendable
+     */
+    default void appendStatic(Appendable appendable, String text) throws IOException {
+        StaticTextAppendable.appendStatic(appendable, text);
+    }
+    
     default boolean format(Appendable appendable, String path, @Nullable Object context) throws IOException {
         return RenderService.findService().formatter(path, context).format(appendable, path, context);
     }
     
+    default boolean format(Appendable appendable, String path, char c) throws IOException {
+        return RenderService.findService().primitiveFormatter(path).format(appendable, path, c);
+    }
+    
+    default boolean format(Appendable appendable, String path, short s) throws IOException {
+        return RenderService.findService().primitiveFormatter(path).format(appendable, path, s);
+    }
+    
+    default boolean format(Appendable appendable, String path, int i) throws IOException {
+        return RenderService.findService().primitiveFormatter(path).format(appendable, path, i);
+    }
+    
+    default boolean format(Appendable appendable, String path, long l) throws IOException {
+        return RenderService.findService().primitiveFormatter(path).format(appendable, path, l);
+    }
+    
+    default boolean format(Appendable appendable, String path, double d) throws IOException {
+        return RenderService.findService().primitiveFormatter(path).format(appendable, path, d);
+    }
+    
+    default boolean format(Appendable appendable, String path, boolean b) throws IOException {
+        return RenderService.findService().primitiveFormatter(path).format(appendable, path, b);
+    }
+    
 }
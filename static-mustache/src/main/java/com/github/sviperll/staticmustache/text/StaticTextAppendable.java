@@ -0,0 +1,24 @@
+package com.github.sviperll.staticmustache.text;
+
+import java.io.IOException;
+
+/**
+ * Output that handles template text differently from rendered data.
+ * <p>
+ * Generated renderers pass template text through {@link #appendStatic(String)}.
+ * The same {@code String} instances are passed on every render, so an implementation
+ * can precompute whatever it needs for them once.
+ */
+public interface StaticTextAppendable extends Appendable {
+
+    void appendStatic(String text) throws IOException;
+
+    static void appendStatic(Appendable appendable, String text) throws IOException {
+        if (appendable instanceof StaticTextAppendable s) {
+            s.appendStatic(text);
+        }
+        else {
+            appendable.append(text);
+        }
+    }
+}
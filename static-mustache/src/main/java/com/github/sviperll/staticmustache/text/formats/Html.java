@@ -37,7 +37,7 @@ import org.eclipse.jdt.annotation.Nullable;
  *
  * @author Victor Nazarov &lt;asviraspossible@gmail.com&gt;
  */
-@TextFormat
+@TextFormat(skipsEscapeFree = true)
 public class Html {
 
     public static Appendable createEscapingAppendable(Appendable appendable) {
@@ -46,12 +46,24 @@ public class Html {
 
     private static class HtmlAppendale implements Appendable {
 
+        private static final String[] ESCAPES = new String['>' + 1];
+
+        static {
+            ESCAPES['&'] = "&amp;";
+            ESCAPES['<'] = "&lt;";
+            ESCAPES['>'] = "&gt;";
+        }
+
         private final Appendable appendable;
 
         public HtmlAppendale(Appendable appendable) {
             this.appendable = appendable;
         }
 
+        private static @Nullable String escape(char c) {
+            return c < ESCAPES.length ? ESCAPES[c] : null;
+        }
+
         @Override
         public Appendable append(@Nullable CharSequence csq) throws IOException {
             csq = csq == null ? "null" : csq;
@@ -61,34 +73,60 @@ public class Html {
         @Override
         public Appendable append(@Nullable CharSequence csq, int start, int end) throws IOException {
             csq = csq == null ? "null" : csq;
+            if (csq instanceof String s && end == s.length()) {
+                appendString(s, start, end);
+                return this;
+            }
             for (int i = start; i < end; i++) {
-                char c = csq.charAt(i);
-                if (c == '&') {
-                    appendable.append(csq, start, i);
-                    start = i + 1;
-                    appendable.append("&amp;");
-                } else if (c == '<') {
+                String escaped = escape(csq.charAt(i));
+                if (escaped != null) {
                     appendable.append(csq, start, i);
                     start = i + 1;
-                    appendable.append("&lt;");
-                } else if (c == '>') {
-                    appendable.append(csq, start, i);
-                    start = i + 1;
-                    appendable.append("&gt;");
+                    appendable.append(escaped);
                 }
             }
             appendable.append(csq, start, end);
             return this;
         }
 
+        /*
+         * String.indexOf is a HotSpot intrinsic that scans many characters per instruction
+         * so long runs of clean text are skipped without a per character loop.
+         * The next position of each special character is remembered so that every
+         * character is scanned at most once per special character.
+         * Only used when scanning to the end of the string as indexOf has no end bound.
+         */
+        private void appendString(String s, int start, int end) throws IOException {
+            int amp = nextIndex(s, '&', start, end);
+            int lt = nextIndex(s, '<', start, end);
+            int gt = nextIndex(s, '>', start, end);
+            int i;
+            while ((i = Math.min(amp, Math.min(lt, gt))) < end) {
+                appendable.append(s, start, i);
+                start = i + 1;
+                char c = s.charAt(i);
+                appendable.append(ESCAPES[c]);
+                if (c == '&') {
+                    amp = nextIndex(s, '&', start, end);
+                } else if (c == '<') {
+                    lt = nextIndex(s, '<', start, end);
+                } else {
+                    gt = nextIndex(s, '>', start, end);
+                }
+            }
+            appendable.append(s, start, end);
+        }
+
+        private static int nextIndex(String s, char c, int start, int end) {
+            int i = s.indexOf(c, start);
+            return i < 0 ? end : i;
+        }
+
         @Override
         public Appendable append(char c) throws IOException {
-            if (c == '&')
-                appendable.append("&amp;");
-            else if (c == '<')
-                appendable.append("&lt;");
-            else if (c == '>')
-                appendable.append("&gt;");
+            String escaped = escape(c);
+            if (escaped != null)
+                appendable.append(escaped);
             else
                 appendable.append(c);
             return this;
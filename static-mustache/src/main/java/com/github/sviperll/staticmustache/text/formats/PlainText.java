@@ -33,7 +33,7 @@ package com.github.sviperll.staticmustache.text.formats;
  *
  * @author Victor Nazarov &lt;asviraspossible@gmail.com&gt;
  */
-@TextFormat
+@TextFormat(skipsEscapeFree = true)
 public class PlainText {
     public static Appendable createEscapingAppendable(Appendable appendable) {
         return appendable;
@@ -77,4 +77,13 @@ import java.lang.annotation.Target;
 @Documented
 public @interface TextFormat {
     String createEscapingAppendableMethodName() default "createEscapingAppendable";
+
+    /**
+     * Whether escaped variables of escape free types, see {@link com.github.sviperll.staticmustache.EscapeFree},
+     * are written without the escaping appendable.
+     * <p>
+     * Only set this when the escaping appendable leaves letters, digits, {@code '_'}, {@code '$'},
+     * {@code '-'}, {@code '+'} and {@code '.'} unchanged.
+     */
+    boolean skipsEscapeFree() default false;
 }
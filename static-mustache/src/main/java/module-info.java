@@ -1,3 +1,4 @@
+import com.github.sviperll.staticmustache.spi.RenderInstrumentation;
 import com.github.sviperll.staticmustache.spi.RenderService;
 
 module com.snaphop.staticmustache {
@@ -8,8 +9,10 @@ module com.snaphop.staticmustache {
 	exports com.github.sviperll.staticmustache.text.formats;
 
 	requires static org.eclipse.jdt.annotation;
+	requires static jdk.jfr;
 	
 	uses RenderService;
+	uses RenderInstrumentation;
 	
 	
 }
\ No newline at end of file